@@ -2,13 +2,15 @@ package com.card.Card_management.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.v1.FirestoreSettings;
 import com.google.cloud.kms.v1.CryptoKeyName;
 import com.google.cloud.kms.v1.DecryptResponse;
-import com.google.cloud.kms.v1.KeyManagementServiceClient;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
 import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -16,6 +18,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,16 +50,42 @@ public class FirebaseConfig {
   @Value("${card.kms.key-name:}")
   private String kmsKeyName;
 
+  @Value("${card.grpc.firestore.min-channels:1}")
+  private int firestoreMinChannels;
+
+  @Value("${card.grpc.firestore.max-channels:8}")
+  private int firestoreMaxChannels;
+
+  @Value("${card.grpc.firestore.max-rpcs-per-channel:80}")
+  private int firestoreMaxRpcsPerChannel;
+
+  @Value("${card.grpc.firestore.keep-alive-time:60s}")
+  private Duration firestoreKeepAliveTime;
+
+  @Value("${card.grpc.firestore.keep-alive-timeout:10s}")
+  private Duration firestoreKeepAliveTimeout;
+
+  @Value("${card.grpc.firestore.deadline:60s}")
+  private Duration firestoreDeadline;
+
   /**
-   * Initializes the shared {@link FirebaseApp} instance if required.
+   * Initializes the shared {@link FirebaseApp} instance if required. Its Firestore client uses the
+   * {@code card.grpc.firestore.*} channel settings. The app owns that client: deleting it on
+   * shutdown closes the Firestore channels.
    *
+   * @param kmsClients shared KMS client, used when the credentials file is encrypted
+   * @param meterRegistry registry for the Firestore channel metrics
    * @return initialized Firebase application handle
    */
-  @Bean
-  public FirebaseApp firebaseApp() throws IOException {
+  @Bean(destroyMethod = "delete")
+  public FirebaseApp firebaseApp(KmsClientProvider kmsClients, MeterRegistry meterRegistry)
+      throws IOException {
     if (FirebaseApp.getApps().isEmpty()) {
+      GoogleCredentials credentials = loadCredentials(kmsClients);
       FirebaseOptions.Builder builder =
-          FirebaseOptions.builder().setCredentials(loadCredentials());
+          FirebaseOptions.builder()
+              .setCredentials(credentials)
+              .setFirestoreOptions(firestoreOptions(credentials, meterRegistry));
       if (projectId != null && !projectId.isBlank()) {
         builder.setProjectId(projectId);
       }
@@ -68,20 +97,48 @@ public class FirebaseConfig {
   }
 
   /**
-   * Provides a Firestore client bound to the configured Firebase application.
+   * Provides the Firestore client bound to the configured Firebase application. It is a singleton
+   * shared by every repository. It is closed when the app is deleted, not by Spring directly.
    *
    * @param firebaseApp configured Firebase instance
    * @return Firestore client ready for use
    */
-  @Bean
+  @Bean(destroyMethod = "")
   public Firestore firestore(FirebaseApp firebaseApp) {
     return FirestoreClient.getFirestore(firebaseApp);
   }
 
+  /**
+   * Builds Firestore transport options with a sized channel pool, keep-alive pings, a call
+   * deadline and channel metrics. Firebase fills in the project and credentials.
+   */
+  private FirestoreOptions firestoreOptions(
+      GoogleCredentials credentials, MeterRegistry meterRegistry) {
+    GrpcChannelSettings settings =
+        new GrpcChannelSettings(
+            firestoreMinChannels,
+            firestoreMaxChannels,
+            firestoreMaxRpcsPerChannel,
+            firestoreKeepAliveTime,
+            firestoreKeepAliveTimeout,
+            firestoreDeadline);
+    FirestoreOptions.Builder options =
+        FirestoreOptions.newBuilder()
+            .setCredentials(credentials)
+            .setChannelProvider(
+                settings.channelProvider(
+                    FirestoreSettings.defaultGrpcTransportProviderBuilder(),
+                    new GrpcCallMetrics("firestore", settings, meterRegistry)));
+    if (projectId != null && !projectId.isBlank()) {
+      options.setProjectId(projectId);
+    }
+    return options.build();
+  }
+
   /**
    * Loads Google credentials either from the provided path or the default environment.
    */
-  private GoogleCredentials loadCredentials() throws IOException {
+  private GoogleCredentials loadCredentials(KmsClientProvider kmsClients) throws IOException {
     if (serviceAccountPath != null && !serviceAccountPath.isBlank()) {
       try (InputStream serviceAccount = new FileInputStream(serviceAccountPath)) {
         return GoogleCredentials.fromStream(serviceAccount);
@@ -89,7 +146,7 @@ public class FirebaseConfig {
     }
 
     if (encryptedServiceAccountPath != null && !encryptedServiceAccountPath.isBlank()) {
-      return loadFromEncryptedFile();
+      return loadFromEncryptedFile(kmsClients);
     }
 
     log.warn(
@@ -98,7 +155,8 @@ public class FirebaseConfig {
     return GoogleCredentials.getApplicationDefault();
   }
 
-  private GoogleCredentials loadFromEncryptedFile() throws IOException {
+  private GoogleCredentials loadFromEncryptedFile(KmsClientProvider kmsClients)
+      throws IOException {
     if (kmsKeyName == null || kmsKeyName.isBlank()) {
       throw new IllegalStateException(
           "card.kms.key-name must be configured when firebase.encrypted-credentials-file is set");
@@ -120,9 +178,9 @@ public class FirebaseConfig {
     CryptoKeyName cryptoKeyName = CryptoKeyName.parse(kmsKeyName);
     log.info("Decrypting Firebase credentials with KMS key {}", cryptoKeyName);
 
-    try (KeyManagementServiceClient kmsClient = KeyManagementServiceClient.create()) {
+    try {
       DecryptResponse response =
-          kmsClient.decrypt(cryptoKeyName, ByteString.copyFrom(ciphertext));
+          kmsClients.get().decrypt(cryptoKeyName, ByteString.copyFrom(ciphertext));
       byte[] plaintext = response.getPlaintext().toByteArray();
       if (plaintext.length == 0) {
         throw new IllegalStateException("KMS returned empty plaintext for Firebase credentials");
@@ -0,0 +1,107 @@
+package com.card.Card_management.config;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Deadline;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client interceptor that measures how busy a backend's channel pool is and caps call deadlines.
+ *
+ * <p>It publishes, tagged with {@code client}:
+ *
+ * <ul>
+ *   <li>{@code card.grpc.calls.in-flight}: calls started and not yet closed
+ *   <li>{@code card.grpc.channel.utilization}: in-flight calls as a share of the pool capacity,
+ *       {@code max-channels * max-rpcs-per-channel}; values near 1 mean calls are about to queue
+ *       behind the per-connection stream limit
+ *   <li>{@code card.grpc.calls}: call latency by {@code method} and {@code status}
+ * </ul>
+ */
+public class GrpcCallMetrics implements ClientInterceptor {
+
+  private final String client;
+  private final MeterRegistry meterRegistry;
+  private final long deadlineNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * Creates the interceptor and registers its gauges.
+   *
+   * @param client backend name used as the {@code client} tag
+   * @param settings channel settings providing the pool capacity and deadline
+   */
+  public GrpcCallMetrics(String client, GrpcChannelSettings settings, MeterRegistry meterRegistry) {
+    this.client = client;
+    this.meterRegistry = meterRegistry;
+    this.deadlineNanos = settings.getDeadline().toNanos();
+    double capacity = (double) settings.getMaxChannels() * settings.getMaxRpcsPerChannel();
+
+    Gauge.builder("card.grpc.calls.in-flight", inFlight, AtomicInteger::get)
+        .description("gRPC calls started and not yet completed")
+        .tag("client", client)
+        .register(meterRegistry);
+    Gauge.builder("card.grpc.channel.utilization", inFlight, calls -> calls.get() / capacity)
+        .description("In-flight gRPC calls as a share of the channel pool capacity")
+        .tag("client", client)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    ClientCall<ReqT, RespT> call = next.newCall(method, withDeadline(callOptions));
+    return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        Listener<RespT> listener =
+            new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(
+                responseListener) {
+              @Override
+              public void onClose(Status status, Metadata trailers) {
+                inFlight.decrementAndGet();
+                Timer.builder("card.grpc.calls")
+                    .description("Latency of gRPC calls to backend services")
+                    .tag("client", client)
+                    .tag("method", method.getFullMethodName())
+                    .tag("status", status.getCode().name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                super.onClose(status, trailers);
+              }
+            };
+        try {
+          super.start(listener, headers);
+        } catch (RuntimeException e) {
+          inFlight.decrementAndGet();
+          throw e;
+        }
+      }
+    };
+  }
+
+  /** Applies the configured deadline unless the caller already asked for an earlier one. */
+  private CallOptions withDeadline(CallOptions callOptions) {
+    if (deadlineNanos <= 0) {
+      return callOptions;
+    }
+    Deadline configured = Deadline.after(deadlineNanos, TimeUnit.NANOSECONDS);
+    Deadline requested = callOptions.getDeadline();
+    return requested != null && requested.isBefore(configured)
+        ? callOptions
+        : callOptions.withDeadline(configured);
+  }
+}
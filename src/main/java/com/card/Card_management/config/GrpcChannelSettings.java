@@ -0,0 +1,115 @@
+package com.card.Card_management.config;
+
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import io.grpc.ClientInterceptor;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Connection settings for the gRPC channels of one backend client (Firestore or KMS).
+ *
+ * <p>Each channel is one HTTP/2 connection, and Google front ends allow about 100 concurrent
+ * streams per connection. Calls beyond that queue on the client. The pool therefore grows from
+ * {@code minChannels} up to {@code maxChannels} whenever channels average more than
+ * {@code maxRpcsPerChannel} calls in flight, and shrinks again when they average less than a
+ * quarter of that.
+ */
+public class GrpcChannelSettings {
+
+  private final int minChannels;
+  private final int maxChannels;
+  private final int maxRpcsPerChannel;
+  private final Duration keepAliveTime;
+  private final Duration keepAliveTimeout;
+  private final Duration deadline;
+
+  /**
+   * Creates channel settings.
+   *
+   * @param minChannels channels opened up front and kept while idle
+   * @param maxChannels upper bound of the channel pool
+   * @param maxRpcsPerChannel concurrent calls per channel above which the pool grows
+   * @param keepAliveTime interval of HTTP/2 pings on active connections; zero disables them
+   * @param keepAliveTimeout time to wait for a ping response before the connection is dropped
+   * @param deadline upper bound for every call on the channel, including streaming reads; zero
+   *     keeps the client library's own timeouts
+   */
+  public GrpcChannelSettings(
+      int minChannels,
+      int maxChannels,
+      int maxRpcsPerChannel,
+      Duration keepAliveTime,
+      Duration keepAliveTimeout,
+      Duration deadline) {
+    if (minChannels < 1 || maxChannels < minChannels) {
+      throw new IllegalStateException(
+          "gRPC channel pool needs 1 <= min-channels <= max-channels, got "
+              + minChannels
+              + " and "
+              + maxChannels);
+    }
+    if (maxRpcsPerChannel < 1) {
+      throw new IllegalStateException("gRPC max-rpcs-per-channel must be positive");
+    }
+    this.minChannels = minChannels;
+    this.maxChannels = maxChannels;
+    this.maxRpcsPerChannel = maxRpcsPerChannel;
+    this.keepAliveTime = keepAliveTime;
+    this.keepAliveTimeout = keepAliveTimeout;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Applies these settings to a client library's default transport.
+   *
+   * @param defaults the client's default channel provider builder, which carries its endpoint and
+   *     message size limits
+   * @param interceptor interceptor installed on every channel of the pool
+   * @return channel provider for the client settings
+   */
+  public InstantiatingGrpcChannelProvider channelProvider(
+      InstantiatingGrpcChannelProvider.Builder defaults, ClientInterceptor interceptor) {
+    defaults
+        .setChannelPoolSettings(
+            ChannelPoolSettings.builder()
+                .setInitialChannelCount(minChannels)
+                .setMinChannelCount(minChannels)
+                .setMaxChannelCount(maxChannels)
+                .setMinRpcsPerChannel(Math.max(maxRpcsPerChannel / 4, 1))
+                .setMaxRpcsPerChannel(maxRpcsPerChannel)
+                .build())
+        .setInterceptorProvider(() -> List.of(interceptor));
+    if (!keepAliveTime.isZero()) {
+      defaults
+          .setKeepAliveTime(org.threeten.bp.Duration.ofMillis(keepAliveTime.toMillis()))
+          .setKeepAliveTimeout(org.threeten.bp.Duration.ofMillis(keepAliveTimeout.toMillis()))
+          .setKeepAliveWithoutCalls(false);
+    }
+    return defaults.build();
+  }
+
+  public int getMinChannels() {
+    return minChannels;
+  }
+
+  public int getMaxChannels() {
+    return maxChannels;
+  }
+
+  public int getMaxRpcsPerChannel() {
+    return maxRpcsPerChannel;
+  }
+
+  public Duration getKeepAliveTime() {
+    return keepAliveTime;
+  }
+
+  public Duration getKeepAliveTimeout() {
+    return keepAliveTimeout;
+  }
+
+  public Duration getDeadline() {
+    return deadline;
+  }
+}
@@ -0,0 +1,114 @@
+package com.card.Card_management.config;
+
+import com.google.cloud.kms.v1.KeyManagementServiceClient;
+import com.google.cloud.kms.v1.KeyManagementServiceSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Owns the application's single Cloud KMS client. Encryption, fingerprinting and credential
+ * decryption all share its channel pool, instead of each call opening and tearing down its own
+ * connection. The client is created on first use, so deployments without KMS keys never connect.
+ */
+@Component
+public class KmsClientProvider {
+
+  private static final Logger log = LoggerFactory.getLogger(KmsClientProvider.class);
+
+  private final GrpcChannelSettings settings;
+  private final GrpcCallMetrics callMetrics;
+  private volatile KeyManagementServiceClient client;
+  private boolean closed;
+
+  /**
+   * Creates the provider.
+   *
+   * @param minChannels channels opened when the client is created
+   * @param maxChannels upper bound of the channel pool
+   * @param maxRpcsPerChannel concurrent calls per channel above which the pool grows
+   * @param keepAliveTime HTTP/2 ping interval on active connections; zero disables pings
+   * @param keepAliveTimeout time to wait for a ping response
+   * @param deadline upper bound for each KMS call
+   */
+  public KmsClientProvider(
+      MeterRegistry meterRegistry,
+      @Value("${card.grpc.kms.min-channels:1}") int minChannels,
+      @Value("${card.grpc.kms.max-channels:4}") int maxChannels,
+      @Value("${card.grpc.kms.max-rpcs-per-channel:80}") int maxRpcsPerChannel,
+      @Value("${card.grpc.kms.keep-alive-time:60s}") Duration keepAliveTime,
+      @Value("${card.grpc.kms.keep-alive-timeout:10s}") Duration keepAliveTimeout,
+      @Value("${card.grpc.kms.deadline:10s}") Duration deadline) {
+    this.settings =
+        new GrpcChannelSettings(
+            minChannels, maxChannels, maxRpcsPerChannel, keepAliveTime, keepAliveTimeout, deadline);
+    this.callMetrics = new GrpcCallMetrics("kms", settings, meterRegistry);
+  }
+
+  /**
+   * Returns the shared client, creating it on first use. Callers must not close it.
+   *
+   * @return KMS client backed by the configured channel pool
+   */
+  public KeyManagementServiceClient get() {
+    KeyManagementServiceClient current = client;
+    if (current != null) {
+      return current;
+    }
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("KMS client has been shut down");
+      }
+      if (client == null) {
+        client = create();
+      }
+      return client;
+    }
+  }
+
+  /** Drains in-flight calls and closes the channels on shutdown. */
+  @PreDestroy
+  public synchronized void close() {
+    closed = true;
+    KeyManagementServiceClient current = client;
+    client = null;
+    if (current == null) {
+      return;
+    }
+    current.shutdown();
+    try {
+      if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+        current.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      current.shutdownNow();
+    }
+  }
+
+  private KeyManagementServiceClient create() {
+    try {
+      KeyManagementServiceSettings kmsSettings =
+          KeyManagementServiceSettings.newBuilder()
+              .setTransportChannelProvider(
+                  settings.channelProvider(
+                      KeyManagementServiceSettings.defaultGrpcTransportProviderBuilder(),
+                      callMetrics))
+              .build();
+      log.info(
+          "Creating KMS client with {}-{} channels of up to {} concurrent calls",
+          settings.getMinChannels(),
+          settings.getMaxChannels(),
+          settings.getMaxRpcsPerChannel());
+      return KeyManagementServiceClient.create(kmsSettings);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to initialise KMS client", e);
+    }
+  }
+}
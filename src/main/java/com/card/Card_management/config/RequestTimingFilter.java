@@ -0,0 +1,123 @@
+package com.card.Card_management.config;
+
+import com.card.Card_management.service.RequestTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Times API requests phase by phase using {@link RequestTiming}. The breakdown is returned in a
+ * {@code Server-Timing} header, logged when the request exceeds the slow-request threshold, or
+ * both. The response is buffered only when the header is on, because the serialization time is
+ * known only after the body has been written. When both outputs are off the filter is skipped
+ * and no recorder is bound.
+ */
+@Component
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(RequestTimingFilter.class);
+  private static final String SERVER_TIMING = "Server-Timing";
+
+  private final boolean headerEnabled;
+  private final long slowThresholdNanos;
+
+  /**
+   * Creates the filter.
+   *
+   * @param headerEnabled whether to add a {@code Server-Timing} header to API responses
+   * @param slowThreshold requests at least this slow are logged with their breakdown; zero
+   *     disables the log
+   */
+  public RequestTimingFilter(
+      @Value("${card.timing.server-timing-header.enabled:false}") boolean headerEnabled,
+      @Value("${card.timing.slow-request-threshold:0s}") Duration slowThreshold) {
+    this.headerEnabled = headerEnabled;
+    this.slowThresholdNanos = slowThreshold.toNanos();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !(headerEnabled || slowThresholdNanos > 0)
+        || !request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    RequestTiming timing = RequestTiming.startRequest();
+    ContentCachingResponseWrapper buffered =
+        headerEnabled ? new ContentCachingResponseWrapper(response) : null;
+    try {
+      filterChain.doFilter(request, buffered != null ? buffered : response);
+    } finally {
+      RequestTiming.finishRequest();
+      timing.finishSerialization();
+      long totalNanos = timing.elapsedNanos();
+      if (buffered != null) {
+        buffered.setHeader(SERVER_TIMING, timing.toServerTimingHeader(totalNanos));
+        buffered.copyBodyToResponse();
+      }
+      if (slowThresholdNanos > 0 && totalNanos >= slowThresholdNanos) {
+        logSlowRequest(request, response.getStatus(), timing, totalNanos);
+      }
+    }
+  }
+
+  /**
+   * Logs the breakdown both in the message, for plain-text logs, and as key-value pairs, for
+   * structured log formats.
+   */
+  private static void logSlowRequest(
+      HttpServletRequest request, int status, RequestTiming timing, long totalNanos) {
+    Map<String, String> phases = new LinkedHashMap<>();
+    StringJoiner summary = new StringJoiner(" ");
+    timing
+        .phases()
+        .forEach(
+            (name, phase) -> {
+              String millis = RequestTiming.millis(phase.getTotalNanos());
+              phases.put(name, millis);
+              summary.add(
+                  name + "=" + millis + "ms" + (phase.getCount() > 1 ? "/" + phase.getCount() : ""));
+            });
+    List<Map<String, String>> records =
+        timing.records().stream()
+            .map(
+                record ->
+                    Map.of(
+                        "phase", record.getPhase(),
+                        "id", String.valueOf(record.getRecordId()),
+                        "ms", RequestTiming.millis(record.getNanos())))
+            .toList();
+
+    log.atWarn()
+        .setMessage("Slow request {} {} -> {} took {}ms: {}")
+        .addArgument(request.getMethod())
+        .addArgument(request.getRequestURI())
+        .addArgument(status)
+        .addArgument(RequestTiming.millis(totalNanos))
+        .addArgument(summary)
+        .addKeyValue("method", request.getMethod())
+        .addKeyValue("path", request.getRequestURI())
+        .addKeyValue("status", status)
+        .addKeyValue("totalMs", RequestTiming.millis(totalNanos))
+        .addKeyValue("phasesMs", phases)
+        .addKeyValue("records", records)
+        .addKeyValue("recordsDropped", timing.droppedRecords())
+        .log();
+  }
+}
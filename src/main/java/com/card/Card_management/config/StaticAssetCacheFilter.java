@@ -0,0 +1,107 @@
+package com.card.Card_management.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies cache headers to static UI resources. Content-hashed assets produced by the build never
+ * change under the same name, so they are cached as immutable; HTML pages and unhashed assets must
+ * be revalidated so a new deploy is picked up immediately. The immutable header is kept only when
+ * the asset is actually served: a 404 or error for a hashed-looking path falls back to
+ * revalidation so the failure is not cached for a year.
+ */
+@Component
+public class StaticAssetCacheFilter extends OncePerRequestFilter {
+
+  private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+  private static final String REVALIDATE = "no-cache";
+
+  private static final Pattern FINGERPRINTED = Pattern.compile(".+\\.[0-9a-f]{10}\\.(js|css)$");
+  private static final Pattern REVALIDATED = Pattern.compile("(.*/|.+\\.(html|js|css))$");
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String method = request.getMethod();
+    return !("GET".equals(method) || "HEAD".equals(method))
+        || request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String path = request.getRequestURI();
+    if (FINGERPRINTED.matcher(path).matches()) {
+      // Set before the chain runs because the resource handler commits the response while writing
+      // the body; the wrapper downgrades it as soon as a non-success status is set.
+      response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+      try {
+        filterChain.doFilter(request, new ServedOnlyResponse(response));
+      } catch (IOException | ServletException | RuntimeException ex) {
+        revalidateIfUncommitted(response);
+        throw ex;
+      }
+      if (!isServed(response.getStatus())) {
+        revalidateIfUncommitted(response);
+      }
+    } else {
+      if (REVALIDATED.matcher(path).matches()) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+      }
+      filterChain.doFilter(request, response);
+    }
+  }
+
+  /** 2xx, plus 304 which refreshes the cached 200 and so must carry the same policy. */
+  private static boolean isServed(int status) {
+    return (status >= 200 && status < 300) || status == HttpServletResponse.SC_NOT_MODIFIED;
+  }
+
+  private static void revalidateIfUncommitted(HttpServletResponse response) {
+    if (!response.isCommitted()) {
+      response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+    }
+  }
+
+  /** Replaces the immutable header with revalidation once the chain reports a failure status. */
+  private static final class ServedOnlyResponse extends HttpServletResponseWrapper {
+
+    ServedOnlyResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public void setStatus(int status) {
+      if (!isServed(status)) {
+        revalidateIfUncommitted(this);
+      }
+      super.setStatus(status);
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+      revalidateIfUncommitted(this);
+      super.sendError(status);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+      revalidateIfUncommitted(this);
+      super.sendError(status, message);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      revalidateIfUncommitted(this);
+      super.sendRedirect(location);
+    }
+  }
+}
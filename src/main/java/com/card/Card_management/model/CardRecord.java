@@ -1,17 +1,24 @@
 package com.card.Card_management.model;
 
+import com.google.cloud.firestore.Blob;
+import com.google.cloud.firestore.annotation.Exclude;
 import java.time.Instant;
 import java.util.Objects;
 
 /**
  * Represents the card information that is persisted in Firestore.
+ *
+ * <p>The PAN ciphertext is stored as raw bytes ({@code panCiphertextBlob}). Older documents carry
+ * a Base64 {@code panCiphertext} string instead, which is still readable until it is migrated.
  */
 public class CardRecord {
 
   private String id;
   private String cardholderName;
+  private byte[] panCiphertextBytes;
   private String panCiphertext;
   private String lastFourHash;
+  private String panFingerprint;
   private Instant createdAt;
 
   public CardRecord() {}
@@ -19,13 +26,15 @@ public class CardRecord {
   public CardRecord(
       String id,
       String cardholderName,
-      String panCiphertext,
+      byte[] panCiphertextBytes,
       String lastFourHash,
+      String panFingerprint,
       Instant createdAt) {
     this.id = id;
     this.cardholderName = cardholderName;
-    this.panCiphertext = panCiphertext;
+    this.panCiphertextBytes = panCiphertextBytes;
     this.lastFourHash = lastFourHash;
+    this.panFingerprint = panFingerprint;
     this.createdAt = createdAt;
   }
 
@@ -45,6 +54,27 @@ public class CardRecord {
     this.cardholderName = cardholderName;
   }
 
+  /** Raw PAN ciphertext, or {@code null} when only the legacy Base64 form is present. */
+  @Exclude
+  public byte[] getPanCiphertextBytes() {
+    return panCiphertextBytes;
+  }
+
+  @Exclude
+  public void setPanCiphertextBytes(byte[] panCiphertextBytes) {
+    this.panCiphertextBytes = panCiphertextBytes;
+  }
+
+  /** Firestore mapping of {@link #getPanCiphertextBytes()}. */
+  public Blob getPanCiphertextBlob() {
+    return panCiphertextBytes != null ? Blob.fromBytes(panCiphertextBytes) : null;
+  }
+
+  public void setPanCiphertextBlob(Blob panCiphertextBlob) {
+    this.panCiphertextBytes = panCiphertextBlob != null ? panCiphertextBlob.toBytes() : null;
+  }
+
+  /** Legacy Base64-encoded ciphertext written before binary storage was introduced. */
   public String getPanCiphertext() {
     return panCiphertext;
   }
@@ -61,6 +91,15 @@ public class CardRecord {
     this.lastFourHash = lastFourHash;
   }
 
+  /** Keyed HMAC of the full PAN used for duplicate detection; absent on older records. */
+  public String getPanFingerprint() {
+    return panFingerprint;
+  }
+
+  public void setPanFingerprint(String panFingerprint) {
+    this.panFingerprint = panFingerprint;
+  }
+
   public Instant getCreatedAt() {
     return createdAt;
   }
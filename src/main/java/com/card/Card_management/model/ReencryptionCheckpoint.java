@@ -0,0 +1,96 @@
+package com.card.Card_management.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resume point of the PAN re-encryption job, persisted after every committed page.
+ */
+public class ReencryptionCheckpoint {
+
+  private String lastProcessedId;
+  private long processed;
+  private long failed;
+  private List<String> failedIds = new ArrayList<>();
+  private Instant startedAt;
+  private Instant updatedAt;
+  private boolean completed;
+
+  public ReencryptionCheckpoint() {}
+
+  public ReencryptionCheckpoint(
+      String lastProcessedId,
+      long processed,
+      List<String> failedIds,
+      Instant startedAt,
+      Instant updatedAt,
+      boolean completed) {
+    this.lastProcessedId = lastProcessedId;
+    this.processed = processed;
+    this.failed = failedIds.size();
+    this.failedIds = new ArrayList<>(failedIds);
+    this.startedAt = startedAt;
+    this.updatedAt = updatedAt;
+    this.completed = completed;
+  }
+
+  /** Id of the last card whose page was committed; {@code null} before the first page. */
+  public String getLastProcessedId() {
+    return lastProcessedId;
+  }
+
+  public void setLastProcessedId(String lastProcessedId) {
+    this.lastProcessedId = lastProcessedId;
+  }
+
+  public long getProcessed() {
+    return processed;
+  }
+
+  public void setProcessed(long processed) {
+    this.processed = processed;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public void setFailed(long failed) {
+    this.failed = failed;
+  }
+
+  /** Ids of cards that failed to re-encrypt and are retried by the next run. */
+  public List<String> getFailedIds() {
+    return failedIds;
+  }
+
+  public void setFailedIds(List<String> failedIds) {
+    this.failedIds = failedIds != null ? failedIds : new ArrayList<>();
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(Instant startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /** Whether every card has been re-encrypted; a run that left failed cards is not completed. */
+  public boolean isCompleted() {
+    return completed;
+  }
+
+  public void setCompleted(boolean completed) {
+    this.completed = completed;
+  }
+}
@@ -1,7 +1,9 @@
 package com.card.Card_management.repository;
 
 import com.card.Card_management.model.CardRecord;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Abstraction over card persistence to support multiple storage backends.
@@ -10,12 +12,23 @@ public interface CardRepository {
 
   /**
    * Persists a new card record and returns the stored representation including any generated id.
+   * When the record carries a PAN fingerprint, the fingerprint is indexed atomically with the
+   * record.
    *
    * @param record record to save (id may be null prior to persistence)
    * @return saved record with identifier populated
+   * @throws DuplicateCardException if another card with the same fingerprint is already stored
    */
   CardRecord save(CardRecord record);
 
+  /**
+   * Checks the fingerprint index for an existing card with the same PAN.
+   *
+   * @param panFingerprint keyed fingerprint of the full PAN
+   * @return {@code true} when a card with that fingerprint is stored
+   */
+  boolean existsByPanFingerprint(String panFingerprint);
+
   /**
    * Returns every stored card record.
    *
@@ -23,6 +36,21 @@ public interface CardRepository {
    */
   List<CardRecord> findAll();
 
+  /**
+   * Counts stored cards without loading them.
+   *
+   * @return number of stored card records
+   */
+  long count();
+
+  /**
+   * Fetches several cards by id in as few round trips as possible.
+   *
+   * @param ids card identifiers; duplicates are ignored and unknown ids skipped
+   * @return the cards found, in the order their ids were given
+   */
+  List<CardRecord> findAllById(Collection<String> ids);
+
   /**
    * Returns stored cards whose last four hash matches the supplied value.
    *
@@ -30,4 +58,40 @@ public interface CardRepository {
    * @return matching card records
    */
   List<CardRecord> findByLastFourHash(String lastFourHash);
+
+  /**
+   * Returns stored cards whose last four hash matches any of the supplied values, using as few
+   * queries as the backend allows.
+   *
+   * @param lastFourHashes hashed last four digits
+   * @return matching card records, each at most once
+   */
+  List<CardRecord> findByLastFourHashes(Collection<String> lastFourHashes);
+
+  /**
+   * Rewrites a legacy Base64 ciphertext as raw bytes, provided the card still stores exactly
+   * {@code legacyCiphertext}. A card that was re-encrypted or rewritten since it was read is left
+   * alone. Implementations may apply the write asynchronously.
+   *
+   * @param id identifier of the card to update
+   * @param legacyCiphertext Base64 ciphertext the caller read from the card
+   */
+  void migrateLegacyCiphertext(String id, String legacyCiphertext);
+
+  /**
+   * Returns one page of cards ordered by id, for jobs that need to walk the whole collection.
+   *
+   * @param afterId id of the last card of the previous page, or {@code null} for the first page
+   * @param limit maximum number of records to return
+   * @return up to {@code limit} records whose ids sort after {@code afterId}
+   */
+  List<CardRecord> findPageAfter(String afterId, int limit);
+
+  /**
+   * Replaces the ciphertext of several cards with raw bytes in as few batched writes as possible,
+   * dropping any legacy Base64 value. Returns only once the writes are durable.
+   *
+   * @param ciphertextById raw ciphertext bytes keyed by card id
+   */
+  void replaceCiphertexts(Map<String, byte[]> ciphertextById);
 }
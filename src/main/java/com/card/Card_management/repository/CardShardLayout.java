@@ -0,0 +1,110 @@
+package com.card.Card_management.repository;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides where card documents live in Firestore.
+ *
+ * <p>With one shard (the default) cards stay in the flat {@code cards} collection. With N shards a
+ * card lives in {@code card_shards/{shard}/cards}, where the shard is a stable hash of its id. New
+ * cards are spread evenly across the shards, so no single index range takes every write, and a
+ * card's location can still be derived from its id alone.
+ */
+@Component
+@ConditionalOnBean(Firestore.class)
+public class CardShardLayout {
+
+  static final String CARD_COLLECTION = "cards";
+  static final String SHARD_COLLECTION = "card_shards";
+
+  private final Firestore firestore;
+  private final int shards;
+  private final boolean legacyReads;
+
+  /**
+   * Creates the layout.
+   *
+   * @param shards number of shard sub-collections; 0 or 1 keeps the flat collection
+   * @param legacyReads whether reads also consult the flat collection, for documents that have not
+   *     been migrated into their shard yet
+   */
+  public CardShardLayout(
+      Firestore firestore,
+      @Value("${card.firestore.shards:0}") int shards,
+      @Value("${card.firestore.legacy-reads:true}") boolean legacyReads) {
+    if (shards < 0) {
+      throw new IllegalStateException("card.firestore.shards must not be negative");
+    }
+    this.firestore = firestore;
+    this.shards = shards;
+    this.legacyReads = legacyReads;
+  }
+
+  /** Whether cards are spread across shard sub-collections. */
+  public boolean isSharded() {
+    return shards > 1;
+  }
+
+  /** Whether reads must also fall back to the flat collection. */
+  public boolean readsLegacy() {
+    return isSharded() && legacyReads;
+  }
+
+  /**
+   * Allocates a reference for a new card. The id is generated client-side, so no round trip is
+   * needed before the shard is known.
+   */
+  public DocumentReference newDocument() {
+    return document(firestore.collection(CARD_COLLECTION).document().getId());
+  }
+
+  /** Returns where the card with {@code id} belongs under the current layout. */
+  public DocumentReference document(String id) {
+    return collectionFor(id).document(id);
+  }
+
+  /** Returns the card's document in the flat collection, where it lived before sharding. */
+  public DocumentReference legacyDocument(String id) {
+    return firestore.collection(CARD_COLLECTION).document(id);
+  }
+
+  /**
+   * Returns every collection a read has to query: each shard, then the flat collection when legacy
+   * reads are enabled.
+   */
+  public List<CollectionReference> readCollections() {
+    if (!isSharded()) {
+      return List.of(firestore.collection(CARD_COLLECTION));
+    }
+    List<CollectionReference> collections = new ArrayList<>(shards + 1);
+    for (int shard = 0; shard < shards; shard++) {
+      collections.add(shardCollection(shard));
+    }
+    if (legacyReads) {
+      collections.add(firestore.collection(CARD_COLLECTION));
+    }
+    return collections;
+  }
+
+  private CollectionReference collectionFor(String id) {
+    if (!isSharded()) {
+      return firestore.collection(CARD_COLLECTION);
+    }
+    // String.hashCode is specified by the JLS, so the mapping is stable across JVMs and releases.
+    return shardCollection(Math.floorMod(id.hashCode(), shards));
+  }
+
+  private CollectionReference shardCollection(int shard) {
+    return firestore
+        .collection(SHARD_COLLECTION)
+        .document(Integer.toString(shard))
+        .collection(CARD_COLLECTION);
+  }
+}
@@ -0,0 +1,139 @@
+package com.card.Card_management.repository;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves card documents to where {@link CardShardLayout} says they belong.
+ *
+ * <p>Every {@code cards} collection is walked with one collection-group query, so the same pass
+ * handles flat to sharded, a change in shard count, and sharded back to flat. Each misplaced card
+ * is copied and its old document deleted in the same batch, so it is never lost or duplicated.
+ * The delete only succeeds if the old document is unchanged since it was read, so a card written
+ * while it is being moved fails its batch instead of being copied stale, and the page is read
+ * again. Ids are unchanged, so the {@code card_fingerprints} index stays valid. Re-running is
+ * safe: cards already in place are skipped.
+ */
+@Component
+@ConditionalOnBean(Firestore.class)
+public class CardShardMigrator {
+
+  private static final Logger log = LoggerFactory.getLogger(CardShardMigrator.class);
+  // Each move is a set plus a delete, and Firestore rejects batches with more than 500 writes.
+  private static final int MAX_MOVES_PER_BATCH = 250;
+  // A page whose documents keep changing while they are moved is given up on after this many reads.
+  private static final int MAX_PAGE_ATTEMPTS = 3;
+
+  private final Firestore firestore;
+  private final CardShardLayout layout;
+
+  public CardShardMigrator(Firestore firestore, CardShardLayout layout) {
+    this.firestore = firestore;
+    this.layout = layout;
+  }
+
+  /**
+   * Walks every card document and moves the misplaced ones.
+   *
+   * @param pageSize number of documents read per query page
+   * @param stopRequested checked between pages; returning {@code true} ends the pass early
+   * @param progress receives the running total of moved cards after each page
+   * @return number of cards moved
+   */
+  public long migrate(int pageSize, BooleanSupplier stopRequested, LongConsumer progress) {
+    Query query =
+        firestore
+            .collectionGroup(CardShardLayout.CARD_COLLECTION)
+            .orderBy(FieldPath.documentId())
+            .limit(pageSize);
+    DocumentSnapshot cursor = null;
+    long moved = 0;
+    int attempts = 0;
+    try {
+      while (!stopRequested.getAsBoolean()) {
+        List<QueryDocumentSnapshot> page =
+            (cursor != null ? query.startAfter(cursor) : query).get().get().getDocuments();
+        if (page.isEmpty()) {
+          break;
+        }
+        try {
+          moved += movePage(page);
+        } catch (ExecutionException e) {
+          boolean stale = hasStatus(e, StatusCode.Code.FAILED_PRECONDITION);
+          if (!stale || ++attempts == MAX_PAGE_ATTEMPTS) {
+            throw e;
+          }
+          log.info("Card documents changed while being moved; reading the page again");
+          continue;
+        }
+        attempts = 0;
+        cursor = page.get(page.size() - 1);
+        progress.accept(moved);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while migrating card documents", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to migrate card documents after {} moves", moved, e);
+      throw new IllegalStateException("Could not migrate card documents", e);
+    }
+    return moved;
+  }
+
+  private int movePage(List<QueryDocumentSnapshot> page)
+      throws InterruptedException, ExecutionException {
+    List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+    WriteBatch batch = firestore.batch();
+    int batchMoves = 0;
+    int moved = 0;
+    for (QueryDocumentSnapshot document : page) {
+      DocumentReference target = layout.document(document.getId());
+      if (target.getPath().equals(document.getReference().getPath())) {
+        continue;
+      }
+      batch.set(target, document.getData());
+      batch.delete(document.getReference(), Precondition.updatedAt(document.getUpdateTime()));
+      moved++;
+      if (++batchMoves == MAX_MOVES_PER_BATCH) {
+        commits.add(batch.commit());
+        batch = firestore.batch();
+        batchMoves = 0;
+      }
+    }
+    if (batchMoves > 0) {
+      commits.add(batch.commit());
+    }
+    ApiFutures.allAsList(commits).get();
+    return moved;
+  }
+
+  private static boolean hasStatus(Throwable error, StatusCode.Code code) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ApiException apiException
+          && apiException.getStatusCode().getCode() == code) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
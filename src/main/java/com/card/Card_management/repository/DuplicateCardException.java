@@ -0,0 +1,15 @@
+package com.card.Card_management.repository;
+
+/**
+ * Signals that a card with the same PAN fingerprint is already stored.
+ */
+public class DuplicateCardException extends RuntimeException {
+
+  public DuplicateCardException(String message) {
+    super(message);
+  }
+
+  public DuplicateCardException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -2,66 +2,136 @@ package com.card.Card_management.repository;
 
 import com.card.Card_management.model.CardRecord;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.Blob;
+import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 /**
  * Card repository backed by Google Cloud Firestore.
+ *
+ * <p>Document locations come from {@link CardShardLayout}. When cards are sharded, queries are
+ * issued to every shard in parallel and the results merged.
  */
 @Repository
 @ConditionalOnBean(Firestore.class)
+@ConditionalOnProperty(name = "card.repository.type", havingValue = "firestore", matchIfMissing = true)
 public class FirestoreCardRepository implements CardRepository {
 
   private static final Logger log = LoggerFactory.getLogger(FirestoreCardRepository.class);
-  private static final String COLLECTION_NAME = "cards";
+  // One document per PAN fingerprint, keyed by the fingerprint itself, so lookups are point reads.
+  private static final String FINGERPRINT_COLLECTION_NAME = "card_fingerprints";
+  // Firestore rejects batches with more than 500 writes.
+  private static final int MAX_BATCH_WRITES = 500;
+  // Documents per getAll call; larger lookups are split and the chunks fetched concurrently.
+  private static final int MAX_GET_ALL_DOCUMENTS = 100;
+  // Firestore allows at most 30 values in a whereIn filter.
+  private static final int MAX_WHERE_IN_VALUES = 30;
 
   private final Firestore firestore;
+  private final CardShardLayout layout;
+  private final Set<String> migrationsInFlight = ConcurrentHashMap.newKeySet();
 
-  public FirestoreCardRepository(Firestore firestore) {
+  public FirestoreCardRepository(Firestore firestore, CardShardLayout layout) {
     this.firestore = firestore;
+    this.layout = layout;
   }
 
   @Override
   public CardRecord save(CardRecord record) {
-    DocumentReference document = firestore.collection(COLLECTION_NAME).document();
+    DocumentReference document = layout.newDocument();
     CardRecord persisted =
         new CardRecord(
             document.getId(),
             record.getCardholderName(),
-            record.getPanCiphertext(),
+            record.getPanCiphertextBytes(),
             record.getLastFourHash(),
+            record.getPanFingerprint(),
             record.getCreatedAt() != null ? record.getCreatedAt() : Instant.now());
 
+    // create() fails if the fingerprint is already indexed, which aborts the whole batch.
+    WriteBatch batch = firestore.batch();
+    if (persisted.getPanFingerprint() != null) {
+      batch.create(
+          firestore.collection(FINGERPRINT_COLLECTION_NAME).document(persisted.getPanFingerprint()),
+          Map.<String, Object>of("cardId", persisted.getId()));
+    }
+    batch.set(document, persisted);
+
     try {
-      ApiFuture<WriteResult> writeFuture = document.set(persisted);
-      WriteResult writeResult = writeFuture.get();
-      log.debug("Persisted card {} at {}", persisted.getId(), writeResult.getUpdateTime());
+      List<WriteResult> writeResults = batch.commit().get();
+      log.debug(
+          "Persisted card {} at {}",
+          persisted.getId(),
+          writeResults.get(writeResults.size() - 1).getUpdateTime());
       return persisted;
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IllegalStateException("Interrupted while storing card information", e);
     } catch (ExecutionException e) {
+      if (isAlreadyExists(e)) {
+        throw new DuplicateCardException("A card with this PAN already exists", e);
+      }
       log.error("Failed to write card {} to Firestore", document.getId(), e);
       throw new IllegalStateException("Could not store card information", e);
     }
   }
 
+  @Override
+  public boolean existsByPanFingerprint(String panFingerprint) {
+    try {
+      return firestore
+          .collection(FINGERPRINT_COLLECTION_NAME)
+          .document(panFingerprint)
+          .get()
+          .get()
+          .exists();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while querying card information", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to query card fingerprint index", e);
+      throw new IllegalStateException("Could not query card information", e);
+    }
+  }
+
   @Override
   public List<CardRecord> findAll() {
     try {
-      ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-      return future.get().getDocuments().stream()
-          .map(doc -> doc.toObject(CardRecord.class))
-          .toList();
+      return fanOut(collection -> collection);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IllegalStateException("Interrupted while querying card information", e);
@@ -71,14 +141,56 @@ public class FirestoreCardRepository implements CardRepository {
     }
   }
 
+  @Override
+  public long count() {
+    // Server-side count aggregations, one per collection. The shard migrator moves each card with
+    // a single batch, so no card is counted in both its shard and the flat collection.
+    List<ApiFuture<AggregateQuerySnapshot>> counts = new ArrayList<>();
+    for (CollectionReference collection : layout.readCollections()) {
+      counts.add(collection.count().get());
+    }
+    try {
+      long total = 0;
+      for (AggregateQuerySnapshot snapshot : ApiFutures.allAsList(counts).get()) {
+        total += snapshot.getCount();
+      }
+      return total;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while counting cards", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to count card collection", e);
+      throw new IllegalStateException("Could not count cards", e);
+    }
+  }
+
+  @Override
+  public List<CardRecord> findAllById(Collection<String> ids) {
+    List<String> distinctIds = ids.stream().distinct().toList();
+    try {
+      Map<String, CardRecord> found = getAll(distinctIds.stream().map(layout::document).toList());
+      if (layout.readsLegacy() && found.size() < distinctIds.size()) {
+        found.putAll(
+            getAll(
+                distinctIds.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .map(layout::legacyDocument)
+                    .toList()));
+      }
+      return distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while querying card information", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to fetch {} cards by id", distinctIds.size(), e);
+      throw new IllegalStateException("Could not query card information", e);
+    }
+  }
+
   @Override
   public List<CardRecord> findByLastFourHash(String lastFourHash) {
     try {
-      ApiFuture<QuerySnapshot> future =
-          firestore.collection(COLLECTION_NAME).whereEqualTo("lastFourHash", lastFourHash).get();
-      return future.get().getDocuments().stream()
-          .map(doc -> doc.toObject(CardRecord.class))
-          .toList();
+      return fanOut(collection -> collection.whereEqualTo("lastFourHash", lastFourHash));
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IllegalStateException("Interrupted while querying card information", e);
@@ -87,4 +199,220 @@ public class FirestoreCardRepository implements CardRepository {
       throw new IllegalStateException("Could not query card information", e);
     }
   }
+
+  @Override
+  public List<CardRecord> findByLastFourHashes(Collection<String> lastFourHashes) {
+    List<String> hashes = lastFourHashes.stream().distinct().toList();
+    List<Function<CollectionReference, Query>> queries = new ArrayList<>();
+    for (int from = 0; from < hashes.size(); from += MAX_WHERE_IN_VALUES) {
+      List<String> chunk = hashes.subList(from, Math.min(from + MAX_WHERE_IN_VALUES, hashes.size()));
+      queries.add(collection -> collection.whereIn("lastFourHash", List.copyOf(chunk)));
+    }
+    try {
+      return fanOut(queries);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while querying card information", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to query card collection by {} hashes", hashes.size(), e);
+      throw new IllegalStateException("Could not query card information", e);
+    }
+  }
+
+  @Override
+  public void migrateLegacyCiphertext(String id, String legacyCiphertext) {
+    // One repair per card at a time; concurrent reads of the same card would all race to write.
+    if (!migrationsInFlight.add(id)) {
+      return;
+    }
+    byte[] ciphertext = Base64.getDecoder().decode(legacyCiphertext);
+    ApiFuture<Boolean> future =
+        firestore.runTransaction(
+            transaction -> {
+              DocumentSnapshot snapshot = transaction.get(layout.document(id)).get();
+              if (!snapshot.exists() && layout.readsLegacy()) {
+                snapshot = transaction.get(layout.legacyDocument(id)).get();
+              }
+              // Re-encrypted or rewritten since it was read: writing now would undo that change.
+              if (!legacyCiphertext.equals(snapshot.getString("panCiphertext"))) {
+                return false;
+              }
+              transaction.update(
+                  snapshot.getReference(),
+                  "panCiphertextBlob", Blob.fromBytes(ciphertext),
+                  "panCiphertext", FieldValue.delete());
+              return true;
+            });
+    ApiFutures.addCallback(
+        future,
+        new ApiFutureCallback<>() {
+          @Override
+          public void onSuccess(Boolean migrated) {
+            migrationsInFlight.remove(id);
+            if (migrated) {
+              log.debug("Migrated ciphertext of card {} to binary storage", id);
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            migrationsInFlight.remove(id);
+            log.warn("Failed to migrate ciphertext of card {} to binary storage", id, t);
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public List<CardRecord> findPageAfter(String afterId, int limit) {
+    try {
+      // Each shard returns its own first page; the global page is the lowest ids among them.
+      return fanOut(
+              collection -> {
+                Query query = collection.orderBy(FieldPath.documentId());
+                return (afterId != null ? query.startAfter(afterId) : query).limit(limit);
+              })
+          .stream()
+          .sorted(Comparator.comparing(CardRecord::getId))
+          .limit(limit)
+          .toList();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while querying card information", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to page card collection after {}", afterId, e);
+      throw new IllegalStateException("Could not query card information", e);
+    }
+  }
+
+  @Override
+  public void replaceCiphertexts(Map<String, byte[]> ciphertextById) {
+    Map<String, DocumentReference> documents;
+    try {
+      documents = resolveDocuments(ciphertextById.keySet());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while storing card information", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to locate {} cards for update", ciphertextById.size(), e);
+      throw new IllegalStateException("Could not store card information", e);
+    }
+
+    List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+    WriteBatch batch = firestore.batch();
+    int batchSize = 0;
+    for (Map.Entry<String, byte[]> entry : ciphertextById.entrySet()) {
+      batch.update(
+          documents.get(entry.getKey()),
+          "panCiphertextBlob", Blob.fromBytes(entry.getValue()),
+          "panCiphertext", FieldValue.delete());
+      if (++batchSize == MAX_BATCH_WRITES) {
+        commits.add(batch.commit());
+        batch = firestore.batch();
+        batchSize = 0;
+      }
+    }
+    if (batchSize > 0) {
+      commits.add(batch.commit());
+    }
+
+    try {
+      ApiFutures.allAsList(commits).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while storing card information", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to update ciphertext of {} cards", ciphertextById.size(), e);
+      throw new IllegalStateException("Could not store card information", e);
+    }
+  }
+
+  /**
+   * Runs {@code query} against every collection in the layout concurrently and merges the results.
+   * A card found both in its shard and in the flat collection is returned once, from its shard.
+   */
+  private List<CardRecord> fanOut(Function<CollectionReference, Query> query)
+      throws InterruptedException, ExecutionException {
+    return fanOut(List.of(query));
+  }
+
+  /** Runs every query against every collection concurrently and merges the results. */
+  private List<CardRecord> fanOut(List<Function<CollectionReference, Query>> queries)
+      throws InterruptedException, ExecutionException {
+    List<ApiFuture<QuerySnapshot>> futures = new ArrayList<>();
+    for (CollectionReference collection : layout.readCollections()) {
+      for (Function<CollectionReference, Query> query : queries) {
+        futures.add(query.apply(collection).get());
+      }
+    }
+    Map<String, CardRecord> recordsById = new LinkedHashMap<>();
+    for (QuerySnapshot snapshot : ApiFutures.allAsList(futures).get()) {
+      for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+        recordsById.putIfAbsent(document.getId(), document.toObject(CardRecord.class));
+      }
+    }
+    return new ArrayList<>(recordsById.values());
+  }
+
+  /**
+   * Reads documents with multi-document gets of at most {@value #MAX_GET_ALL_DOCUMENTS}, issued
+   * concurrently.
+   *
+   * @return the existing documents keyed by id
+   */
+  private Map<String, CardRecord> getAll(List<DocumentReference> documents)
+      throws InterruptedException, ExecutionException {
+    List<ApiFuture<List<DocumentSnapshot>>> chunks = new ArrayList<>();
+    for (int from = 0; from < documents.size(); from += MAX_GET_ALL_DOCUMENTS) {
+      List<DocumentReference> chunk =
+          documents.subList(from, Math.min(from + MAX_GET_ALL_DOCUMENTS, documents.size()));
+      chunks.add(firestore.getAll(chunk.toArray(DocumentReference[]::new)));
+    }
+    Map<String, CardRecord> records = new HashMap<>();
+    for (List<DocumentSnapshot> snapshots : ApiFutures.allAsList(chunks).get()) {
+      for (DocumentSnapshot snapshot : snapshots) {
+        if (snapshot.exists()) {
+          records.put(snapshot.getId(), snapshot.toObject(CardRecord.class));
+        }
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Maps ids to the document that currently holds each card. While legacy reads are enabled, cards
+   * missing from their shard are assumed to still be in the flat collection.
+   */
+  private Map<String, DocumentReference> resolveDocuments(Iterable<String> ids)
+      throws InterruptedException, ExecutionException {
+    Map<String, DocumentReference> documents = new LinkedHashMap<>();
+    for (String id : ids) {
+      documents.put(id, layout.document(id));
+    }
+    if (!layout.readsLegacy() || documents.isEmpty()) {
+      return documents;
+    }
+    List<DocumentSnapshot> snapshots =
+        firestore.getAll(documents.values().toArray(DocumentReference[]::new)).get();
+    for (DocumentSnapshot snapshot : snapshots) {
+      if (!snapshot.exists()) {
+        documents.put(snapshot.getId(), layout.legacyDocument(snapshot.getId()));
+      }
+    }
+    return documents;
+  }
+
+  private static boolean isAlreadyExists(Throwable error) {
+    return hasStatus(error, StatusCode.Code.ALREADY_EXISTS);
+  }
+
+  private static boolean hasStatus(Throwable error, StatusCode.Code code) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ApiException apiException
+          && apiException.getStatusCode().getCode() == code) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
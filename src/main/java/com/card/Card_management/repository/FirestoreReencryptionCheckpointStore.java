@@ -0,0 +1,78 @@
+package com.card.Card_management.repository;
+
+import com.card.Card_management.model.ReencryptionCheckpoint;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Stores the re-encryption checkpoint as a single Firestore document.
+ */
+@Repository
+@ConditionalOnBean(Firestore.class)
+public class FirestoreReencryptionCheckpointStore implements ReencryptionCheckpointStore {
+
+  private static final Logger log =
+      LoggerFactory.getLogger(FirestoreReencryptionCheckpointStore.class);
+  private static final String COLLECTION_NAME = "card_jobs";
+  private static final String DOCUMENT_ID = "reencryption";
+
+  private final Firestore firestore;
+
+  public FirestoreReencryptionCheckpointStore(Firestore firestore) {
+    this.firestore = firestore;
+  }
+
+  @Override
+  public Optional<ReencryptionCheckpoint> load() {
+    try {
+      DocumentSnapshot snapshot = document().get().get();
+      if (!snapshot.exists()) {
+        return Optional.empty();
+      }
+      return Optional.ofNullable(snapshot.toObject(ReencryptionCheckpoint.class));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading re-encryption checkpoint", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to load re-encryption checkpoint", e);
+      throw new IllegalStateException("Could not load re-encryption checkpoint", e);
+    }
+  }
+
+  @Override
+  public void save(ReencryptionCheckpoint checkpoint) {
+    try {
+      document().set(checkpoint).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while saving re-encryption checkpoint", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to save re-encryption checkpoint", e);
+      throw new IllegalStateException("Could not save re-encryption checkpoint", e);
+    }
+  }
+
+  @Override
+  public void clear() {
+    try {
+      document().delete().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while clearing re-encryption checkpoint", e);
+    } catch (ExecutionException e) {
+      log.error("Failed to clear re-encryption checkpoint", e);
+      throw new IllegalStateException("Could not clear re-encryption checkpoint", e);
+    }
+  }
+
+  private DocumentReference document() {
+    return firestore.collection(COLLECTION_NAME).document(DOCUMENT_ID);
+  }
+}
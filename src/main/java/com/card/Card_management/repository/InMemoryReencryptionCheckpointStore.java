@@ -0,0 +1,29 @@
+package com.card.Card_management.repository;
+
+import com.card.Card_management.model.ReencryptionCheckpoint;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process-local checkpoint store used when no durable store is available. Progress survives a
+ * stopped job but not a restart of the application.
+ */
+public class InMemoryReencryptionCheckpointStore implements ReencryptionCheckpointStore {
+
+  private final AtomicReference<ReencryptionCheckpoint> checkpoint = new AtomicReference<>();
+
+  @Override
+  public Optional<ReencryptionCheckpoint> load() {
+    return Optional.ofNullable(checkpoint.get());
+  }
+
+  @Override
+  public void save(ReencryptionCheckpoint checkpoint) {
+    this.checkpoint.set(checkpoint);
+  }
+
+  @Override
+  public void clear() {
+    checkpoint.set(null);
+  }
+}
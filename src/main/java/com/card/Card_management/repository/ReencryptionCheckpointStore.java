@@ -0,0 +1,27 @@
+package com.card.Card_management.repository;
+
+import com.card.Card_management.model.ReencryptionCheckpoint;
+import java.util.Optional;
+
+/**
+ * Durable storage for the re-encryption job's resume point.
+ */
+public interface ReencryptionCheckpointStore {
+
+  /**
+   * Returns the last saved checkpoint, if any.
+   *
+   * @return stored checkpoint or empty when the job has never run
+   */
+  Optional<ReencryptionCheckpoint> load();
+
+  /**
+   * Overwrites the stored checkpoint.
+   *
+   * @param checkpoint checkpoint to persist
+   */
+  void save(ReencryptionCheckpoint checkpoint);
+
+  /** Removes the stored checkpoint so the next run starts from the beginning. */
+  void clear();
+}
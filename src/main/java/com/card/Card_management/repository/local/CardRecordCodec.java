@@ -0,0 +1,120 @@
+package com.card.Card_management.repository.local;
+
+import com.card.Card_management.model.CardRecord;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Binary encoding of {@link CardRecord} log entries.
+ *
+ * <p>Layout: a format version byte, then id, cardholder name, ciphertext, legacy ciphertext, last
+ * four hash and fingerprint as length-prefixed fields ({@code -1} for null), then the creation
+ * time as epoch seconds and nanos. The id comes first so it can be read without decoding the rest.
+ */
+final class CardRecordCodec {
+
+  private static final byte FORMAT_VERSION = 1;
+  private static final long NO_INSTANT = Long.MIN_VALUE;
+
+  private CardRecordCodec() {}
+
+  static byte[] encode(CardRecord record) {
+    byte[] id = utf8(record.getId());
+    byte[] name = utf8(record.getCardholderName());
+    byte[] ciphertext = record.getPanCiphertextBytes();
+    byte[] legacyCiphertext = utf8(record.getPanCiphertext());
+    byte[] lastFourHash = utf8(record.getLastFourHash());
+    byte[] fingerprint = utf8(record.getPanFingerprint());
+
+    int size =
+        1
+            + fieldSize(id)
+            + fieldSize(name)
+            + fieldSize(ciphertext)
+            + fieldSize(legacyCiphertext)
+            + fieldSize(lastFourHash)
+            + fieldSize(fingerprint)
+            + Long.BYTES
+            + Integer.BYTES;
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.put(FORMAT_VERSION);
+    putField(buffer, id);
+    putField(buffer, name);
+    putField(buffer, ciphertext);
+    putField(buffer, legacyCiphertext);
+    putField(buffer, lastFourHash);
+    putField(buffer, fingerprint);
+    Instant createdAt = record.getCreatedAt();
+    buffer.putLong(createdAt != null ? createdAt.getEpochSecond() : NO_INSTANT);
+    buffer.putInt(createdAt != null ? createdAt.getNano() : 0);
+    return buffer.array();
+  }
+
+  static CardRecord decode(ByteBuffer payload) {
+    ByteBuffer buffer = payload.duplicate();
+    checkVersion(buffer.get());
+    String id = getString(buffer);
+    String name = getString(buffer);
+    byte[] ciphertext = getBytes(buffer);
+    String legacyCiphertext = getString(buffer);
+    String lastFourHash = getString(buffer);
+    String fingerprint = getString(buffer);
+    long seconds = buffer.getLong();
+    int nanos = buffer.getInt();
+
+    CardRecord record =
+        new CardRecord(
+            id,
+            name,
+            ciphertext,
+            lastFourHash,
+            fingerprint,
+            seconds != NO_INSTANT ? Instant.ofEpochSecond(seconds, nanos) : null);
+    record.setPanCiphertext(legacyCiphertext);
+    return record;
+  }
+
+  static String decodeId(ByteBuffer payload) {
+    ByteBuffer buffer = payload.duplicate();
+    checkVersion(buffer.get());
+    return getString(buffer);
+  }
+
+  private static void checkVersion(byte version) {
+    if (version != FORMAT_VERSION) {
+      throw new IllegalStateException("Unsupported card log entry version " + version);
+    }
+  }
+
+  private static byte[] utf8(String value) {
+    return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private static int fieldSize(byte[] value) {
+    return Integer.BYTES + (value != null ? value.length : 0);
+  }
+
+  private static void putField(ByteBuffer buffer, byte[] value) {
+    if (value == null) {
+      buffer.putInt(-1);
+      return;
+    }
+    buffer.putInt(value.length).put(value);
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] value = new byte[length];
+    buffer.get(value);
+    return value;
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] value = getBytes(buffer);
+    return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+  }
+}
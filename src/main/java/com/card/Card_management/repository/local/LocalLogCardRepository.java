@@ -0,0 +1,471 @@
+package com.card.Card_management.repository.local;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.repository.DuplicateCardException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Card repository backed by a local append-only log, for single-node deployments without
+ * Firestore.
+ *
+ * <p>Every save or update appends a new version of the record to a {@link SegmentedLog}; writes
+ * return once the entry is fsynced, with concurrent writers sharing a sync. Three memory-mapped
+ * {@link MappedHashIndex} files point at the latest version of each record: by id, by last four
+ * hash and by PAN fingerprint. A version only enters the indexes once it is durable; until then
+ * writers find it in a small in-memory table. Whatever index pages reach the disk before a crash
+ * therefore never point at log bytes the crash lost. Every {@code checkpointInterval} indexed
+ * writes, and on shutdown, the indexes are flushed and record how far into the log they are
+ * complete, so startup only replays the log after that checkpoint. Indexes that are missing or
+ * unreadable are rebuilt from the full log.
+ */
+@Repository
+@ConditionalOnProperty(name = "card.repository.type", havingValue = "local")
+public class LocalLogCardRepository implements CardRepository {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalLogCardRepository.class);
+
+  private final SegmentedLog cardLog;
+  private final MappedHashIndex idIndex;
+  private final MappedHashIndex lastFourIndex;
+  private final MappedHashIndex fingerprintIndex;
+  private final int checkpointInterval;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // Versions appended to the log but not yet durable, and therefore not yet indexed. Guarded by
+  // the write lock; writers look here before the indexes.
+  private final NavigableMap<Long, CardRecord> pending = new TreeMap<>();
+  private final Map<String, Long> pendingIds = new HashMap<>();
+  private final Map<String, Long> pendingFingerprints = new HashMap<>();
+  private int writesSinceCheckpoint;
+  // Id-ordered view for findPageAfter, built on first use so startup stays proportional to the
+  // log tail rather than the number of cards.
+  private volatile NavigableSet<String> sortedIds;
+
+  /**
+   * Opens or creates the store in {@code directory} and recovers the indexes.
+   *
+   * @param directory directory holding the log segments and index files
+   * @param segmentSize size at which the active log segment is sealed and a new one started
+   * @param indexCapacity initial slot count of each index; indexes grow as needed
+   * @param checkpointInterval number of indexed writes between index checkpoints
+   */
+  public LocalLogCardRepository(
+      @Value("${card.local-store.directory:data/cards}") String directory,
+      @Value("${card.local-store.segment-size:64MB}") DataSize segmentSize,
+      @Value("${card.local-store.index-capacity:65536}") int indexCapacity,
+      @Value("${card.local-store.checkpoint-interval:1000}") int checkpointInterval) {
+    if (checkpointInterval < 1) {
+      throw new IllegalStateException("card.local-store.checkpoint-interval must be positive");
+    }
+    this.checkpointInterval = checkpointInterval;
+    Path root = Path.of(directory);
+    try {
+      this.cardLog = SegmentedLog.open(root, segmentSize.toBytes());
+      this.idIndex = MappedHashIndex.open(root.resolve("id.idx"), indexCapacity);
+      this.lastFourIndex = MappedHashIndex.open(root.resolve("last-four.idx"), indexCapacity);
+      this.fingerprintIndex = MappedHashIndex.open(root.resolve("fingerprint.idx"), indexCapacity);
+      recover();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not open local card store at " + root, e);
+    }
+  }
+
+  @Override
+  public CardRecord save(CardRecord record) {
+    CardRecord persisted =
+        new CardRecord(
+            UUID.randomUUID().toString(),
+            record.getCardholderName(),
+            record.getPanCiphertextBytes(),
+            record.getLastFourHash(),
+            record.getPanFingerprint(),
+            record.getCreatedAt() != null ? record.getCreatedAt() : Instant.now());
+
+    long location;
+    lock.writeLock().lock();
+    try {
+      String fingerprint = persisted.getPanFingerprint();
+      if (fingerprint != null
+          && (pendingFingerprints.containsKey(fingerprint)
+              || findLocationByFingerprint(fingerprint) != MappedHashIndex.NO_LOCATION)) {
+        throw new DuplicateCardException("A card with this PAN already exists");
+      }
+      location = append(persisted);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    commit(location);
+    return persisted;
+  }
+
+  @Override
+  public boolean existsByPanFingerprint(String panFingerprint) {
+    lock.readLock().lock();
+    try {
+      return findLocationByFingerprint(panFingerprint) != MappedHashIndex.NO_LOCATION;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<CardRecord> findAll() {
+    lock.readLock().lock();
+    try {
+      List<CardRecord> records = new ArrayList<>();
+      idIndex.forEachLocation(location -> records.add(read(location)));
+      return records;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long count() {
+    return sortedIdsView().size();
+  }
+
+  @Override
+  public List<CardRecord> findAllById(Collection<String> ids) {
+    lock.readLock().lock();
+    try {
+      List<CardRecord> records = new ArrayList<>(ids.size());
+      for (String id : new LinkedHashSet<>(ids)) {
+        long location = findLocationById(id);
+        if (location != MappedHashIndex.NO_LOCATION) {
+          records.add(read(location));
+        }
+      }
+      return records;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<CardRecord> findByLastFourHash(String lastFourHash) {
+    lock.readLock().lock();
+    try {
+      Map<String, CardRecord> records = new LinkedHashMap<>();
+      lastFourIndex.forEachMember(
+          MappedHashIndex.hash(lastFourHash),
+          location -> {
+            CardRecord record = read(location);
+            if (lastFourHash.equals(record.getLastFourHash()) && isLatest(record, location)) {
+              records.putIfAbsent(record.getId(), record);
+            }
+          });
+      return new ArrayList<>(records.values());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<CardRecord> findByLastFourHashes(Collection<String> lastFourHashes) {
+    lock.readLock().lock();
+    try {
+      List<CardRecord> records = new ArrayList<>();
+      for (String lastFourHash : new LinkedHashSet<>(lastFourHashes)) {
+        records.addAll(findByLastFourHash(lastFourHash));
+      }
+      return records;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void migrateLegacyCiphertext(String id, String legacyCiphertext) {
+    long location;
+    lock.writeLock().lock();
+    try {
+      long current = findLatestLocationById(id);
+      if (current == MappedHashIndex.NO_LOCATION) {
+        return;
+      }
+      CardRecord updated = read(current);
+      if (!legacyCiphertext.equals(updated.getPanCiphertext())) {
+        return;
+      }
+      updated.setPanCiphertextBytes(Base64.getDecoder().decode(legacyCiphertext));
+      updated.setPanCiphertext(null);
+      location = append(updated);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    commit(location);
+  }
+
+  @Override
+  public List<CardRecord> findPageAfter(String afterId, int limit) {
+    NavigableSet<String> ids = sortedIdsView();
+    lock.readLock().lock();
+    try {
+      Iterator<String> iterator =
+          afterId == null ? ids.iterator() : ids.tailSet(afterId, false).iterator();
+      List<CardRecord> page = new ArrayList<>(Math.min(limit, 256));
+      while (page.size() < limit && iterator.hasNext()) {
+        long location = findLocationById(iterator.next());
+        if (location != MappedHashIndex.NO_LOCATION) {
+          page.add(read(location));
+        }
+      }
+      return page;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void replaceCiphertexts(Map<String, byte[]> ciphertextById) {
+    long lastLocation = MappedHashIndex.NO_LOCATION;
+    lock.writeLock().lock();
+    try {
+      for (Map.Entry<String, byte[]> entry : ciphertextById.entrySet()) {
+        long current = findLatestLocationById(entry.getKey());
+        if (current == MappedHashIndex.NO_LOCATION) {
+          log.warn("Cannot replace ciphertext of unknown card {}", entry.getKey());
+          continue;
+        }
+        CardRecord updated = read(current);
+        updated.setPanCiphertextBytes(entry.getValue());
+        updated.setPanCiphertext(null);
+        lastLocation = append(updated);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (lastLocation != MappedHashIndex.NO_LOCATION) {
+      commit(lastLocation);
+    }
+  }
+
+  /** Syncs the log and checkpoints the indexes so the next startup has nothing to replay. */
+  @PreDestroy
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      cardLog.sync();
+      indexDurableWrites();
+      checkpoint();
+      idIndex.close();
+      lastFourIndex.close();
+      fingerprintIndex.close();
+      cardLog.close();
+    } catch (IOException e) {
+      log.warn("Failed to close local card store cleanly", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void recover() throws IOException {
+    long from =
+        Math.min(
+            idIndex.checkpoint(), Math.min(lastFourIndex.checkpoint(), fingerprintIndex.checkpoint()));
+    boolean usable =
+        idIndex.isRecovered()
+            && lastFourIndex.isRecovered()
+            && fingerprintIndex.isRecovered()
+            && cardLog.contains(idIndex.checkpoint())
+            && cardLog.contains(lastFourIndex.checkpoint())
+            && cardLog.contains(fingerprintIndex.checkpoint());
+    if (!usable) {
+      log.info("Rebuilding local card store indexes from the full log");
+      idIndex.reset();
+      lastFourIndex.reset();
+      fingerprintIndex.reset();
+      from = MappedHashIndex.NO_LOCATION;
+    }
+
+    long startNanos = System.nanoTime();
+    int[] replayed = {0};
+    cardLog.replay(
+        from,
+        (location, payload) -> {
+          applyToIndexes(CardRecordCodec.decode(payload), location);
+          replayed[0]++;
+        });
+    checkpoint();
+    log.info(
+        "Opened local card store: replayed {} log entries in {} ms",
+        replayed[0],
+        (System.nanoTime() - startNanos) / 1_000_000);
+  }
+
+  /**
+   * Appends a record version and holds it back from the indexes until it is durable. Caller holds
+   * the write lock.
+   */
+  private long append(CardRecord record) {
+    long location = cardLog.append(CardRecordCodec.encode(record));
+    pending.put(location, record);
+    pendingIds.put(record.getId(), location);
+    if (record.getPanFingerprint() != null) {
+      pendingFingerprints.put(record.getPanFingerprint(), location);
+    }
+    return location;
+  }
+
+  /**
+   * Waits until the entry at {@code location} is durable, then indexes it along with every other
+   * pending version the same sync covered. Called without the lock so that concurrent writers
+   * can share one fsync.
+   */
+  private void commit(long location) {
+    cardLog.awaitDurable(location);
+    lock.writeLock().lock();
+    try {
+      indexDurableWrites();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Moves every durable pending version into the indexes, in log order. */
+  private void indexDurableWrites() {
+    Iterator<Map.Entry<Long, CardRecord>> durable =
+        pending.headMap(cardLog.durableEnd(), false).entrySet().iterator();
+    while (durable.hasNext()) {
+      Map.Entry<Long, CardRecord> entry = durable.next();
+      CardRecord record = entry.getValue();
+      long location = entry.getKey();
+      applyToIndexes(record, location);
+      pendingIds.remove(record.getId(), location);
+      if (record.getPanFingerprint() != null) {
+        pendingFingerprints.remove(record.getPanFingerprint(), location);
+      }
+      NavigableSet<String> ids = sortedIds;
+      if (ids != null) {
+        ids.add(record.getId());
+      }
+      durable.remove();
+      writesSinceCheckpoint++;
+    }
+    if (writesSinceCheckpoint >= checkpointInterval) {
+      checkpoint();
+    }
+  }
+
+  /**
+   * Points the indexes at the record version stored at {@code location}. Idempotent, so replaying
+   * entries whose effects were already partly flushed before a crash is safe.
+   */
+  private void applyToIndexes(CardRecord record, long location) {
+    String id = record.getId();
+    long previous = findLocationById(id);
+    if (previous != MappedHashIndex.NO_LOCATION && previous > location) {
+      return; // A newer version is already indexed.
+    }
+    try {
+      idIndex.put(MappedHashIndex.hash(id), location, candidate -> isId(candidate, id));
+      if (record.getLastFourHash() != null) {
+        lastFourIndex.putMember(
+            MappedHashIndex.hash(record.getLastFourHash()), MappedHashIndex.hash(id), location);
+      }
+      if (record.getPanFingerprint() != null) {
+        String fingerprint = record.getPanFingerprint();
+        fingerprintIndex.put(
+            MappedHashIndex.hash(fingerprint),
+            location,
+            candidate -> fingerprint.equals(read(candidate).getPanFingerprint()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to update local card store index", e);
+    }
+  }
+
+  /**
+   * Flushes the indexes and records the log location up to which they are complete: the first
+   * version still pending, or the end of the log. Caller holds the write lock.
+   */
+  private void checkpoint() {
+    long complete = pending.isEmpty() ? cardLog.end() : pending.firstKey();
+    idIndex.checkpoint(complete);
+    lastFourIndex.checkpoint(complete);
+    fingerprintIndex.checkpoint(complete);
+    writesSinceCheckpoint = 0;
+  }
+
+  private long findLocationById(String id) {
+    return idIndex.get(MappedHashIndex.hash(id), candidate -> isId(candidate, id));
+  }
+
+  /** Like {@link #findLocationById}, but includes versions that are not durable yet. */
+  private long findLatestLocationById(String id) {
+    Long location = pendingIds.get(id);
+    return location != null ? location : findLocationById(id);
+  }
+
+  private long findLocationByFingerprint(String fingerprint) {
+    return fingerprintIndex.get(
+        MappedHashIndex.hash(fingerprint),
+        candidate -> fingerprint.equals(read(candidate).getPanFingerprint()));
+  }
+
+  /**
+   * The last four index may keep a superseded location after a crash; only the version the id
+   * index points at is current.
+   */
+  private boolean isLatest(CardRecord record, long location) {
+    return findLocationById(record.getId()) == location;
+  }
+
+  private boolean isId(long location, String id) {
+    return Objects.equals(CardRecordCodec.decodeId(cardLog.read(location)), id);
+  }
+
+  private CardRecord read(long location) {
+    ByteBuffer payload = cardLog.read(location);
+    return CardRecordCodec.decode(payload);
+  }
+
+  private NavigableSet<String> sortedIdsView() {
+    NavigableSet<String> ids = sortedIds;
+    if (ids != null) {
+      return ids;
+    }
+    lock.writeLock().lock();
+    try {
+      if (sortedIds == null) {
+        NavigableSet<String> built = new ConcurrentSkipListSet<>();
+        idIndex.forEachLocation(
+            location -> built.add(CardRecordCodec.decodeId(cardLog.read(location))));
+        sortedIds = built;
+      }
+      return sortedIds;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
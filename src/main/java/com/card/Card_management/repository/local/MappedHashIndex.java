@@ -0,0 +1,375 @@
+package com.card.Card_management.repository.local;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing hash table in a memory-mapped file, mapping 64-bit key hashes to log locations.
+ *
+ * <p>Keys themselves are not stored: callers confirm a hit by reading the record at the returned
+ * location, which also makes hash collisions harmless. A slot holds {@code [long keyHash][long
+ * location]}; a zero hash marks an empty slot. Entries are overwritten but never removed. A key
+ * can instead hold a set of locations, one per member (see {@link #putMember}). The bookkeeping
+ * entries of a set are matched on their full 64-bit hash alone, and every member gets slots of
+ * its own, so a large set does not pile up into one long probe run.
+ *
+ * <p>The header records the log location up to which the table is known to be complete, so recovery
+ * only replays the log after that checkpoint. Callers only store locations of log entries that are
+ * already durable. After a crash, whichever pages modified since the last checkpoint reached the
+ * disk therefore still point at valid entries, and replaying the log from the checkpoint
+ * re-applies the rest.
+ *
+ * <p>Not thread-safe; callers serialise mutations against lookups.
+ */
+final class MappedHashIndex implements Closeable {
+
+  static final long NO_LOCATION = 0;
+
+  private static final long MAGIC = 0x4341524449445831L; // "CARDIDX1"
+  private static final int VERSION = 2;
+  private static final int HEADER_BYTES = 64;
+  private static final int SLOT_BYTES = 16;
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 8;
+  private static final int CAPACITY_OFFSET = 12;
+  private static final int USED_OFFSET = 16;
+  private static final int CLEAN_OFFSET = 20;
+  private static final int CHECKPOINT_OFFSET = 24;
+  private static final long MEMBER_SALT = 0x6d656d6265720000L;
+  private static final long ORDINAL_SALT = 0x6f7264696e616c00L;
+  private static final LongPredicate ANY = value -> true;
+
+  private final Path file;
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int capacity;
+  private int used;
+  private long probes;
+  private final boolean recovered;
+
+  private MappedHashIndex(Path file, FileChannel channel, MappedByteBuffer buffer, boolean valid) {
+    this.file = file;
+    this.channel = channel;
+    this.buffer = buffer;
+    this.capacity = buffer.getInt(CAPACITY_OFFSET);
+    this.recovered = valid;
+    // The stored slot count is only current after a clean close.
+    boolean clean = valid && buffer.getInt(CLEAN_OFFSET) == 1;
+    this.used = clean ? buffer.getInt(USED_OFFSET) : countUsedSlots();
+    // Mark dirty until the next clean close so a crash is detected on the next open.
+    buffer.putInt(CLEAN_OFFSET, 0);
+    buffer.force();
+  }
+
+  /**
+   * Opens {@code file}, or creates an empty index if it is missing or unreadable.
+   *
+   * @param initialCapacity slot count for a new index; rounded up to a power of two
+   */
+  static MappedHashIndex open(Path file, int initialCapacity) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long size = channel.size();
+    if (size >= HEADER_BYTES) {
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+      int capacity = header.getInt(CAPACITY_OFFSET);
+      boolean valid =
+          header.getLong(MAGIC_OFFSET) == MAGIC
+              && header.getInt(VERSION_OFFSET) == VERSION
+              && Integer.bitCount(capacity) == 1
+              && size == fileSize(capacity);
+      if (valid) {
+        return new MappedHashIndex(file, channel, map(channel, capacity), true);
+      }
+    }
+    return new MappedHashIndex(file, channel, initialise(channel, initialCapacity), false);
+  }
+
+  /**
+   * Whether an existing index was loaded, cleanly closed or not. A new or unreadable index must be
+   * {@link #reset() reset} and rebuilt from the log.
+   */
+  boolean isRecovered() {
+    return recovered;
+  }
+
+  /** Log location up to which this index is complete; {@link #NO_LOCATION} for a new index. */
+  long checkpoint() {
+    return buffer.getLong(CHECKPOINT_OFFSET);
+  }
+
+  /** Flushes the table and then records {@code location} as its checkpoint. */
+  void checkpoint(long location) {
+    buffer.force();
+    buffer.putLong(CHECKPOINT_OFFSET, location);
+    buffer.putInt(USED_OFFSET, used);
+    buffer.force();
+  }
+
+  /** Discards every entry and the checkpoint. */
+  void reset() throws IOException {
+    buffer = initialise(channel, capacity);
+    used = 0;
+  }
+
+  /**
+   * Returns the first location stored under {@code keyHash} that satisfies {@code matches}.
+   *
+   * @return the location, or {@link #NO_LOCATION}
+   */
+  long get(long keyHash, LongPredicate matches) {
+    keyHash = normalise(keyHash);
+    for (int slot = firstSlot(keyHash); ; slot = nextSlot(slot)) {
+      probes++;
+      long storedHash = slotHash(slot);
+      if (storedHash == 0) {
+        return NO_LOCATION;
+      }
+      long location = slotLocation(slot);
+      if (storedHash == keyHash && matches.test(location)) {
+        return location;
+      }
+    }
+  }
+
+  /** Calls {@code consumer} with the location of every member of the set under {@code keyHash}. */
+  void forEachMember(long keyHash, LongConsumer consumer) {
+    keyHash = normalise(keyHash);
+    long count = get(keyHash, ANY);
+    for (long ordinal = 1; ordinal <= count; ordinal++) {
+      long location = get(ordinalKey(keyHash, ordinal), ANY);
+      if (location != NO_LOCATION) {
+        consumer.accept(location);
+      }
+    }
+  }
+
+  /** Calls {@code consumer} with every location in the table. */
+  void forEachLocation(LongConsumer consumer) {
+    for (int slot = 0; slot < capacity; slot++) {
+      long location = slotLocation(slot);
+      if (slotHash(slot) != 0) {
+        consumer.accept(location);
+      }
+    }
+  }
+
+  /**
+   * Stores {@code location} for a unique key, overwriting the entry for which {@code sameKey}
+   * holds, if any.
+   */
+  void put(long keyHash, long location, LongPredicate sameKey) throws IOException {
+    keyHash = normalise(keyHash);
+    for (int slot = firstSlot(keyHash); ; slot = nextSlot(slot)) {
+      probes++;
+      long storedHash = slotHash(slot);
+      if (storedHash == 0) {
+        insert(keyHash, location);
+        return;
+      }
+      long stored = slotLocation(slot);
+      if (storedHash == keyHash && sameKey.test(stored)) {
+        setSlotLocation(slot, location);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Stores {@code location} as the member {@code memberHash} of the set under {@code keyHash},
+   * replacing the member's previous location.
+   *
+   * <p>A set is kept as unique entries: its size under the key itself, an ordinal per member under
+   * a key derived from the member, and the member's location under a key derived from the ordinal.
+   * Adding or moving a member therefore costs a few short probes however large the set is, and no
+   * tombstones are left behind. Idempotent, as log replay requires: after a crash that kept only
+   * some of these entries, re-applying the write either restores them or gives the member a new
+   * ordinal. In that case the old ordinal still holds an earlier location, which callers filter
+   * out like any superseded version.
+   */
+  void putMember(long keyHash, long memberHash, long location) throws IOException {
+    keyHash = normalise(keyHash);
+    long memberKey = memberKey(keyHash, memberHash);
+    long count = get(keyHash, ANY);
+    long ordinal = get(memberKey, ANY);
+    if (ordinal == NO_LOCATION) {
+      ordinal = count + 1;
+    }
+    put(ordinalKey(keyHash, ordinal), location, ANY);
+    if (ordinal > count) {
+      put(keyHash, ordinal, ANY);
+    }
+    put(memberKey, ordinal, ANY);
+  }
+
+  /** Number of slots inspected by lookups and writes since the index was opened. */
+  long probes() {
+    return probes;
+  }
+
+  /** Marks the index as cleanly closed and releases the file. */
+  @Override
+  public void close() throws IOException {
+    buffer.putInt(USED_OFFSET, used);
+    buffer.putInt(CLEAN_OFFSET, 1);
+    buffer.force();
+    channel.close();
+  }
+
+  /**
+   * 64-bit hash of a key string (FNV-1a with a murmur-style finaliser). Never returns zero, which
+   * marks empty slots.
+   */
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h ^= key.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return normalise(mix(h));
+  }
+
+  private void insert(long keyHash, long location) throws IOException {
+    if ((long) (used + 1) * 4 > (long) capacity * 3) {
+      grow();
+      put(keyHash, location, existing -> false);
+      return;
+    }
+    int slot = firstSlot(keyHash);
+    while (slotHash(slot) != 0) {
+      slot = nextSlot(slot);
+    }
+    // Location first: a torn write then leaves an empty slot rather than a dangling hash.
+    setSlotLocation(slot, location);
+    buffer.putLong(slotOffset(slot), keyHash);
+    used++;
+  }
+
+  /**
+   * Rehashes every entry into a table twice the size. The new table is built beside the current
+   * one and atomically renamed over it, so a crash leaves either the old or the new file intact.
+   */
+  private void grow() throws IOException {
+    int newCapacity = capacity * 2;
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    FileChannel newChannel =
+        FileChannel.open(
+            tmp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    MappedByteBuffer newBuffer = initialise(newChannel, newCapacity);
+    int newUsed = 0;
+    int mask = newCapacity - 1;
+    for (int slot = 0; slot < capacity; slot++) {
+      long keyHash = slotHash(slot);
+      long location = slotLocation(slot);
+      if (keyHash == 0) {
+        continue;
+      }
+      int target = (int) keyHash & mask;
+      while (newBuffer.getLong(HEADER_BYTES + target * SLOT_BYTES) != 0) {
+        target = (target + 1) & mask;
+      }
+      newBuffer.putLong(HEADER_BYTES + target * SLOT_BYTES + Long.BYTES, location);
+      newBuffer.putLong(HEADER_BYTES + target * SLOT_BYTES, keyHash);
+      newUsed++;
+    }
+    newBuffer.putLong(CHECKPOINT_OFFSET, checkpoint());
+    newBuffer.putInt(USED_OFFSET, newUsed);
+    newBuffer.force();
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    channel.close();
+    channel = newChannel;
+    buffer = newBuffer;
+    capacity = newCapacity;
+    used = newUsed;
+  }
+
+  private static long memberKey(long keyHash, long memberHash) {
+    return normalise(mix(keyHash ^ mix(memberHash ^ MEMBER_SALT)));
+  }
+
+  private static long ordinalKey(long keyHash, long ordinal) {
+    return normalise(mix(keyHash ^ mix(ordinal ^ ORDINAL_SALT)));
+  }
+
+  private int countUsedSlots() {
+    int count = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      if (slotHash(slot) != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private int firstSlot(long keyHash) {
+    return (int) keyHash & (capacity - 1);
+  }
+
+  private int nextSlot(int slot) {
+    return (slot + 1) & (capacity - 1);
+  }
+
+  private static int slotOffset(int slot) {
+    return HEADER_BYTES + slot * SLOT_BYTES;
+  }
+
+  private long slotHash(int slot) {
+    return buffer.getLong(slotOffset(slot));
+  }
+
+  private long slotLocation(int slot) {
+    return buffer.getLong(slotOffset(slot) + Long.BYTES);
+  }
+
+  private void setSlotLocation(int slot, long location) {
+    buffer.putLong(slotOffset(slot) + Long.BYTES, location);
+  }
+
+  private static MappedByteBuffer initialise(FileChannel channel, int requestedCapacity)
+      throws IOException {
+    int capacity = Integer.highestOneBit(Math.max(requestedCapacity, 16) - 1) << 1;
+    channel.truncate(0);
+    MappedByteBuffer buffer = map(channel, capacity);
+    buffer.putLong(MAGIC_OFFSET, MAGIC);
+    buffer.putInt(VERSION_OFFSET, VERSION);
+    buffer.putInt(CAPACITY_OFFSET, capacity);
+    buffer.putLong(CHECKPOINT_OFFSET, NO_LOCATION);
+    buffer.force();
+    return buffer;
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, int capacity) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+  }
+
+  private static long fileSize(int capacity) {
+    return HEADER_BYTES + (long) capacity * SLOT_BYTES;
+  }
+
+  private static long normalise(long keyHash) {
+    return keyHash == 0 ? 1 : keyHash;
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
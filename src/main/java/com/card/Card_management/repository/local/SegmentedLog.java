@@ -0,0 +1,387 @@
+package com.card.Card_management.repository.local;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log split into fixed-size segment files.
+ *
+ * <p>Each entry is framed as {@code [int length][int crc32c][payload]}. Entries are addressed by a
+ * location that packs the segment id into the high bits and the byte offset into the low
+ * {@value #OFFSET_BITS} bits, so locations grow monotonically in log order. Reads are served from
+ * memory-mapped segments without locking. The mapping of the active segment grows in whole chunks
+ * of {@value #MAP_CHUNK_BYTES} bytes, and entries in the partial chunk at its tail are read with
+ * positional reads. Durability uses group commit: concurrent writers that call
+ * {@link #awaitDurable(long)} share a single {@code fsync}.
+ */
+final class SegmentedLog implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(SegmentedLog.class);
+  private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{8})\\.log");
+  private static final int OFFSET_BITS = 40;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+  static final int FRAME_HEADER_BYTES = 8;
+  static final long MAP_CHUNK_BYTES = 4L << 20;
+
+  private final Path directory;
+  private final long maxSegmentBytes;
+  private final NavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+  private final Object appendLock = new Object();
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private final AtomicLong durableEnd = new AtomicLong();
+  private volatile Segment active;
+
+  private SegmentedLog(Path directory, long maxSegmentBytes) {
+    this.directory = directory;
+    this.maxSegmentBytes = Math.min(maxSegmentBytes, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Opens the segments in {@code directory}, creating the first one if none exist.
+   */
+  static SegmentedLog open(Path directory, long maxSegmentBytes) throws IOException {
+    Files.createDirectories(directory);
+    SegmentedLog segmentedLog = new SegmentedLog(directory, maxSegmentBytes);
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          int id = Integer.parseInt(matcher.group(1));
+          segmentedLog.segments.put(id, Segment.open(id, file));
+        }
+      }
+    }
+    if (segmentedLog.segments.isEmpty()) {
+      segmentedLog.segments.put(1, Segment.open(1, segmentedLog.segmentPath(1)));
+    }
+    segmentedLog.active = segmentedLog.segments.lastEntry().getValue();
+    for (Segment segment : segmentedLog.segments.headMap(segmentedLog.active.id).values()) {
+      segment.sealed = true;
+    }
+    segmentedLog.durableEnd.set(segmentedLog.end());
+    return segmentedLog;
+  }
+
+  static long location(int segmentId, long offset) {
+    return ((long) segmentId << OFFSET_BITS) | offset;
+  }
+
+  static int segmentId(long location) {
+    return (int) (location >>> OFFSET_BITS);
+  }
+
+  static long offset(long location) {
+    return location & OFFSET_MASK;
+  }
+
+  /** Location one past the last written entry. */
+  long end() {
+    Segment current = active;
+    return location(current.id, current.size);
+  }
+
+  /** Location up to which the log is known to be fsynced; every entry before it is durable. */
+  long durableEnd() {
+    return durableEnd.get();
+  }
+
+  /** Whether {@code location} lies within, or at the end of, an existing segment. */
+  boolean contains(long location) {
+    if (location == 0) {
+      return true;
+    }
+    Segment segment = segments.get(segmentId(location));
+    return segment != null && offset(location) <= segment.size;
+  }
+
+  /**
+   * Appends an entry, rolling to a new segment when the active one is full. The entry is visible
+   * to readers immediately but only durable after {@link #awaitDurable(long)}.
+   *
+   * @return location of the new entry
+   */
+  long append(byte[] payload) {
+    int frameLength = FRAME_HEADER_BYTES + payload.length;
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+    header.putInt(payload.length).putInt((int) crc.getValue()).flip();
+
+    synchronized (appendLock) {
+      try {
+        if (active.size > 0 && active.size + frameLength > maxSegmentBytes) {
+          roll();
+        }
+        Segment segment = active;
+        long offset = segment.size;
+        ByteBuffer[] frame = {header, ByteBuffer.wrap(payload)};
+        long position = offset;
+        while (frame[1].hasRemaining()) {
+          position += segment.channel.write(frame);
+        }
+        segment.size = position;
+        return location(segment.id, offset);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to append to card log", e);
+      }
+    }
+  }
+
+  /**
+   * Blocks until the entry at {@code location} has been fsynced. Writers arriving while a sync
+   * is in progress are covered by the next one, so N concurrent writers cost far fewer than N
+   * syncs.
+   */
+  void awaitDurable(long location) {
+    if (durableEnd.get() > location) {
+      return;
+    }
+    syncLock.lock();
+    try {
+      if (durableEnd.get() > location) {
+        return;
+      }
+      Segment segment;
+      long target;
+      synchronized (appendLock) {
+        segment = active;
+        target = location(segment.id, segment.size);
+      }
+      segment.channel.force(false);
+      durableEnd.accumulateAndGet(target, Math::max);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to sync card log", e);
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /**
+   * Makes everything written so far durable.
+   *
+   * @return the log end covered by the sync
+   */
+  long sync() {
+    long end = end();
+    awaitDurable(end - 1);
+    return end;
+  }
+
+  /**
+   * Returns a read-only view of the payload stored at {@code location}, backed by the segment's
+   * memory mapping unless the entry is still in the unmapped tail of the active segment.
+   */
+  ByteBuffer read(long location) {
+    Segment segment = segments.get(segmentId(location));
+    if (segment == null) {
+      throw new IllegalStateException("No log segment for location " + location);
+    }
+    long offset = offset(location);
+    int length = segment.view(offset, FRAME_HEADER_BYTES).getInt(0);
+    return segment.view(offset + FRAME_HEADER_BYTES, length);
+  }
+
+  /**
+   * Replays every entry from {@code fromLocation} to the end of the log, verifying checksums. A
+   * torn or corrupt entry at the tail of the last segment is the remnant of a crash mid-write and
+   * is truncated; corruption anywhere else is fatal. The log is fsynced afterwards, since a crashed
+   * process may have left entries that were written but never synced.
+   */
+  void replay(long fromLocation, EntryConsumer consumer) throws IOException {
+    int fromSegment = fromLocation == 0 ? segments.firstKey() : segmentId(fromLocation);
+    for (Map.Entry<Integer, Segment> entry : segments.tailMap(fromSegment, true).entrySet()) {
+      Segment segment = entry.getValue();
+      long offset = segment.id == fromSegment ? offset(fromLocation) : 0;
+      while (offset < segment.size) {
+        int length = readValidLength(segment, offset);
+        if (length < 0) {
+          if (segment != active) {
+            throw new IllegalStateException(
+                "Corrupt entry in sealed segment " + segment.path + " at offset " + offset);
+          }
+          log.warn(
+              "Truncating torn tail of {} at offset {} ({} bytes dropped)",
+              segment.path,
+              offset,
+              segment.size - offset);
+          segment.truncate(offset);
+          break;
+        }
+        consumer.accept(
+            location(segment.id, offset),
+            segment.view(offset + FRAME_HEADER_BYTES, length));
+        offset += FRAME_HEADER_BYTES + length;
+      }
+    }
+    active.channel.force(false);
+    durableEnd.set(end());
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (appendLock) {
+      active.channel.force(false);
+      for (Segment segment : segments.values()) {
+        segment.channel.close();
+      }
+    }
+  }
+
+  /** Returns the payload length of a valid frame at {@code offset}, or -1 if it is torn. */
+  private static int readValidLength(Segment segment, long offset) {
+    if (segment.size - offset < FRAME_HEADER_BYTES) {
+      return -1;
+    }
+    ByteBuffer header = segment.view(offset, FRAME_HEADER_BYTES);
+    int length = header.getInt(0);
+    int expectedCrc = header.getInt(4);
+    if (length <= 0 || segment.size - offset - FRAME_HEADER_BYTES < length) {
+      return -1;
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(segment.view(offset + FRAME_HEADER_BYTES, length));
+    return (int) crc.getValue() == expectedCrc ? length : -1;
+  }
+
+  private void roll() throws IOException {
+    active.channel.force(false);
+    active.sealed = true;
+    int nextId = active.id + 1;
+    Segment next = Segment.open(nextId, segmentPath(nextId));
+    segments.put(nextId, next);
+    active = next;
+    durableEnd.accumulateAndGet(location(nextId, 0), Math::max);
+    log.debug("Rolled card log to segment {}", nextId);
+  }
+
+  private Path segmentPath(int id) {
+    return directory.resolve(String.format("segment-%08d.log", id));
+  }
+
+  /** Receives replayed entries. */
+  @FunctionalInterface
+  interface EntryConsumer {
+    void accept(long location, ByteBuffer payload);
+  }
+
+  /**
+   * One segment file with a read-only mapping that is published through a volatile field, so
+   * readers never lock. The mapping is only replaced when a read needs bytes beyond it and whole
+   * chunks, or the complete segment once it is sealed, are available to cover them.
+   */
+  private static final class Segment {
+    final int id;
+    final Path path;
+    final FileChannel channel;
+    volatile long size;
+    volatile boolean sealed;
+    private volatile MappedByteBuffer mapped;
+    private final Object remapLock = new Object();
+
+    private Segment(int id, Path path, FileChannel channel, long size) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.size = size;
+    }
+
+    static Segment open(int id, Path path) throws IOException {
+      FileChannel channel =
+          FileChannel.open(
+              path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      long size = channel.size();
+      channel.position(size);
+      return new Segment(id, path, channel, size);
+    }
+
+    /** Returns a read-only view of {@code length} bytes at {@code offset}. */
+    ByteBuffer view(long offset, int length) {
+      long end = offset + length;
+      if (end > size) {
+        throw new IllegalStateException("Read beyond end of " + path + " at offset " + offset);
+      }
+      MappedByteBuffer current = mapped;
+      if (current == null || current.capacity() < end) {
+        current = extendMapping(end);
+        if (current == null) {
+          return readTail(offset, length);
+        }
+      }
+      return current.slice((int) offset, length).asReadOnlyBuffer();
+    }
+
+    void truncate(long newSize) throws IOException {
+      synchronized (remapLock) {
+        channel.truncate(newSize);
+        channel.position(newSize);
+        size = newSize;
+        mapped = null;
+      }
+    }
+
+    /**
+     * Maps the segment up to its last whole chunk, or completely once sealed.
+     *
+     * @return the mapping, or null if {@code end} still lies in the unmapped tail
+     */
+    private MappedByteBuffer extendMapping(long end) {
+      if (mappableBytes() < end) {
+        return null;
+      }
+      synchronized (remapLock) {
+        MappedByteBuffer current = mapped;
+        if (current != null && current.capacity() >= end) {
+          return current;
+        }
+        long mappable = mappableBytes();
+        if (mappable < end) {
+          return null;
+        }
+        try {
+          current = channel.map(FileChannel.MapMode.READ_ONLY, 0, mappable);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to map " + path, e);
+        }
+        mapped = current;
+        return current;
+      }
+    }
+
+    private long mappableBytes() {
+      long currentSize = size;
+      return sealed ? currentSize : currentSize - currentSize % MAP_CHUNK_BYTES;
+    }
+
+    private ByteBuffer readTail(long offset, int length) {
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      try {
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, offset + buffer.position()) < 0) {
+            throw new IllegalStateException("Unexpected end of " + path + " at offset " + offset);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read " + path, e);
+      }
+      return buffer.flip().asReadOnlyBuffer();
+    }
+  }
+}
@@ -1,14 +1,16 @@
 package com.card.Card_management.service;
 
+import com.card.Card_management.config.KmsClientProvider;
 import com.google.cloud.kms.v1.DecryptResponse;
 import com.google.cloud.kms.v1.EncryptResponse;
-import com.google.cloud.kms.v1.KeyManagementServiceClient;
 import com.google.protobuf.ByteString;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
@@ -24,19 +26,27 @@ import org.springframework.stereotype.Service;
 public class CardEncryptionService {
 
   private final Encryptor delegate;
+  private final List<Encryptor> previousDelegates;
 
   /**
    * Creates a service that prefers KMS when a key name is supplied, otherwise falls back to local
-   * AES.
+   * AES. Previously used keys are only ever used for decryption, so ciphertext written before a
+   * key change stays readable until it has been re-encrypted.
    *
+   * @param kmsClients shared KMS client used by every KMS key
    * @param kmsKeyName fully qualified KMS key identifier
    * @param fallbackKey base64-encoded AES key used when KMS is unavailable
+   * @param previousKmsKeyNames comma-separated KMS keys that were used before {@code kmsKeyName}
+   * @param previousFallbackKeys comma-separated base64 AES keys used before {@code fallbackKey}
    */
   public CardEncryptionService(
+      KmsClientProvider kmsClients,
       @Value("${card.kms.key-name:}") String kmsKeyName,
-      @Value("${card.encryption.key:}") String fallbackKey) {
+      @Value("${card.encryption.key:}") String fallbackKey,
+      @Value("${card.kms.previous-key-names:}") String previousKmsKeyNames,
+      @Value("${card.encryption.previous-keys:}") String previousFallbackKeys) {
     if (kmsKeyName != null && !kmsKeyName.isBlank()) {
-      this.delegate = new KmsEncryptor(kmsKeyName);
+      this.delegate = new KmsEncryptor(kmsClients, kmsKeyName);
     } else {
       if (fallbackKey == null || fallbackKey.isBlank()) {
         throw new IllegalStateException(
@@ -44,68 +54,107 @@ public class CardEncryptionService {
       }
       this.delegate = new LocalAesEncryptor(fallbackKey);
     }
+
+    List<Encryptor> previous = new ArrayList<>();
+    splitList(previousKmsKeyNames)
+        .forEach(name -> previous.add(new KmsEncryptor(kmsClients, name)));
+    splitList(previousFallbackKeys).forEach(key -> previous.add(new LocalAesEncryptor(key)));
+    this.previousDelegates = List.copyOf(previous);
+  }
+
+  /**
+   * Indicates whether encryption calls go to Cloud KMS rather than running locally.
+   *
+   * @return {@code true} when the current key is a KMS key
+   */
+  public boolean isRemote() {
+    return delegate instanceof KmsEncryptor;
   }
 
   /**
    * Encrypts the provided PAN using the configured delegate.
    *
    * @param pan primary account number in plain text
-   * @return base64-encoded ciphertext
+   * @return raw ciphertext bytes
    */
-  public String encryptPan(String pan) {
+  public byte[] encryptPanBytes(String pan) {
     return delegate.encrypt(pan);
   }
 
   /**
    * Decrypts a previously encrypted PAN.
    *
-   * @param encryptedPan ciphertext encoded in base64
+   * @param ciphertext raw ciphertext bytes
    * @return decrypted primary account number
    */
-  public String decryptPan(String encryptedPan) {
-    return delegate.decrypt(encryptedPan);
+  public String decryptPan(byte[] ciphertext) {
+    try {
+      return delegate.decrypt(ciphertext);
+    } catch (IllegalStateException e) {
+      for (Encryptor previous : previousDelegates) {
+        try {
+          return previous.decrypt(ciphertext);
+        } catch (IllegalStateException ignored) {
+          // try the next retired key
+        }
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Decrypts a PAN with whichever configured key accepts it and encrypts it again with the
+   * current key.
+   *
+   * @param ciphertext raw ciphertext bytes produced by a current or previous key
+   * @return raw ciphertext bytes under the current key
+   */
+  public byte[] reencryptPan(byte[] ciphertext) {
+    return encryptPanBytes(decryptPan(ciphertext));
+  }
+
+  private static List<String> splitList(String value) {
+    if (value == null || value.isBlank()) {
+      return List.of();
+    }
+    return Arrays.stream(value.split(",")).map(String::trim).filter(v -> !v.isEmpty()).toList();
   }
 
   /** Strategy abstraction to support multiple encryption implementations. */
   private interface Encryptor {
-    String encrypt(String plaintext);
+    byte[] encrypt(String plaintext);
 
-    String decrypt(String ciphertext);
+    String decrypt(byte[] ciphertext);
   }
 
   /**
    * Encryptor backed by Google Cloud KMS.
    */
   private static final class KmsEncryptor implements Encryptor {
+    private final KmsClientProvider clients;
     private final String keyName;
 
-    private KmsEncryptor(String keyName) {
+    private KmsEncryptor(KmsClientProvider clients, String keyName) {
+      this.clients = clients;
       this.keyName = keyName;
     }
 
     @Override
-    public String encrypt(String plaintext) {
-      try (KeyManagementServiceClient client = KeyManagementServiceClient.create()) {
+    public byte[] encrypt(String plaintext) {
+      try {
         EncryptResponse response =
-            client.encrypt(
-                keyName, ByteString.copyFrom(plaintext, StandardCharsets.UTF_8));
-        return Base64.getEncoder().encodeToString(response.getCiphertext().toByteArray());
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to initialise KMS client", e);
+            clients.get().encrypt(keyName, ByteString.copyFrom(plaintext, StandardCharsets.UTF_8));
+        return response.getCiphertext().toByteArray();
       } catch (RuntimeException e) {
         throw new IllegalStateException("Failed to encrypt PAN with KMS", e);
       }
     }
 
     @Override
-    public String decrypt(String ciphertext) {
-      try (KeyManagementServiceClient client = KeyManagementServiceClient.create()) {
-        DecryptResponse response =
-            client.decrypt(
-                keyName, ByteString.copyFrom(Base64.getDecoder().decode(ciphertext)));
+    public String decrypt(byte[] ciphertext) {
+      try {
+        DecryptResponse response = clients.get().decrypt(keyName, ByteString.copyFrom(ciphertext));
         return response.getPlaintext().toStringUtf8();
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to initialise KMS client", e);
       } catch (RuntimeException e) {
         throw new IllegalStateException("Failed to decrypt PAN with KMS", e);
       }
@@ -132,40 +181,39 @@ public class CardEncryptionService {
     }
 
     @Override
-    public String encrypt(String plaintext) {
+    public byte[] encrypt(String plaintext) {
       try {
         byte[] iv = new byte[IV_LENGTH_BYTES];
         secureRandom.nextBytes(iv);
 
         Cipher cipher = Cipher.getInstance(ALGORITHM);
         cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
-        byte[] cipherText = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+        byte[] plain = plaintext.getBytes(StandardCharsets.UTF_8);
 
-        byte[] combined = new byte[IV_LENGTH_BYTES + cipherText.length];
+        // Layout is IV || ciphertext+tag; the cipher writes straight after the IV.
+        byte[] combined = new byte[IV_LENGTH_BYTES + cipher.getOutputSize(plain.length)];
         System.arraycopy(iv, 0, combined, 0, IV_LENGTH_BYTES);
-        System.arraycopy(cipherText, 0, combined, IV_LENGTH_BYTES, cipherText.length);
-        return Base64.getEncoder().encodeToString(combined);
+        cipher.doFinal(plain, 0, plain.length, combined, IV_LENGTH_BYTES);
+        return combined;
       } catch (GeneralSecurityException e) {
         throw new IllegalStateException("Failed to encrypt PAN locally", e);
       }
     }
 
     @Override
-    public String decrypt(String ciphertext) {
+    public String decrypt(byte[] combined) {
       try {
-        byte[] combined = Base64.getDecoder().decode(ciphertext);
         if (combined.length <= IV_LENGTH_BYTES) {
           throw new IllegalStateException("Ciphertext is too short");
         }
 
-        byte[] iv = new byte[IV_LENGTH_BYTES];
-        byte[] cipherText = new byte[combined.length - IV_LENGTH_BYTES];
-        System.arraycopy(combined, 0, iv, 0, IV_LENGTH_BYTES);
-        System.arraycopy(combined, IV_LENGTH_BYTES, cipherText, 0, cipherText.length);
-
         Cipher cipher = Cipher.getInstance(ALGORITHM);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
-        byte[] plain = cipher.doFinal(cipherText);
+        cipher.init(
+            Cipher.DECRYPT_MODE,
+            secretKey,
+            new GCMParameterSpec(TAG_LENGTH_BITS, combined, 0, IV_LENGTH_BYTES));
+        byte[] plain =
+            cipher.doFinal(combined, IV_LENGTH_BYTES, combined.length - IV_LENGTH_BYTES);
         return new String(plain, StandardCharsets.UTF_8);
       } catch (GeneralSecurityException e) {
         throw new IllegalStateException("Failed to decrypt PAN locally", e);
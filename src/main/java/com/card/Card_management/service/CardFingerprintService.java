@@ -0,0 +1,147 @@
+package com.card.Card_management.service;
+
+import com.card.Card_management.config.KmsClientProvider;
+import com.google.cloud.kms.v1.MacSignResponse;
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Computes a keyed HMAC fingerprint of the full PAN so duplicate cards can be found with a single
+ * lookup instead of decrypting candidates. Keys are resolved like {@link CardEncryptionService}:
+ * a KMS MAC key when configured, otherwise a local HMAC key.
+ */
+@Service
+public class CardFingerprintService {
+
+  private static final Logger log = LoggerFactory.getLogger(CardFingerprintService.class);
+  private static final HexFormat HEX = HexFormat.of();
+
+  private final Fingerprinter delegate;
+
+  /**
+   * Creates a service that prefers KMS when a key version is supplied, otherwise falls back to a
+   * local HMAC-SHA256 key. Fingerprinting is disabled when neither is configured.
+   *
+   * @param kmsClients shared KMS client
+   * @param kmsKeyVersionName fully qualified KMS MAC key version identifier
+   * @param fallbackKey base64-encoded HMAC key used when KMS is unavailable
+   */
+  public CardFingerprintService(
+      KmsClientProvider kmsClients,
+      @Value("${card.fingerprint.kms-key-version:}") String kmsKeyVersionName,
+      @Value("${card.fingerprint.key:}") String fallbackKey) {
+    if (kmsKeyVersionName != null && !kmsKeyVersionName.isBlank()) {
+      this.delegate = new KmsFingerprinter(kmsClients, kmsKeyVersionName);
+    } else if (fallbackKey != null && !fallbackKey.isBlank()) {
+      this.delegate = new LocalHmacFingerprinter(fallbackKey);
+    } else {
+      log.warn(
+          "Neither card.fingerprint.kms-key-version nor card.fingerprint.key are configured; "
+              + "duplicate card detection is disabled");
+      this.delegate = null;
+    }
+  }
+
+  /**
+   * Indicates whether a fingerprint key is configured.
+   *
+   * @return {@code true} when {@link #fingerprint(String)} produces values
+   */
+  public boolean isEnabled() {
+    return delegate != null;
+  }
+
+  /**
+   * Indicates whether fingerprints are computed by Cloud KMS rather than locally.
+   *
+   * @return {@code true} when a KMS MAC key is configured
+   */
+  public boolean isRemote() {
+    return delegate instanceof KmsFingerprinter;
+  }
+
+  /**
+   * Produces the keyed fingerprint of a PAN.
+   *
+   * @param pan primary account number in plain text
+   * @return lowercase hex-encoded MAC, or {@code null} when fingerprinting is disabled
+   */
+  public String fingerprint(String pan) {
+    if (delegate == null) {
+      return null;
+    }
+    return HEX.formatHex(delegate.mac(pan.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /** Strategy abstraction to support multiple MAC implementations. */
+  private interface Fingerprinter {
+    byte[] mac(byte[] data);
+  }
+
+  /**
+   * Fingerprinter backed by a Google Cloud KMS MAC signing key.
+   */
+  private static final class KmsFingerprinter implements Fingerprinter {
+    private final KmsClientProvider clients;
+    private final String keyVersionName;
+
+    private KmsFingerprinter(KmsClientProvider clients, String keyVersionName) {
+      this.clients = clients;
+      this.keyVersionName = keyVersionName;
+    }
+
+    @Override
+    public byte[] mac(byte[] data) {
+      try {
+        MacSignResponse response = clients.get().macSign(keyVersionName, ByteString.copyFrom(data));
+        return response.getMac().toByteArray();
+      } catch (RuntimeException e) {
+        throw new IllegalStateException("Failed to fingerprint PAN with KMS", e);
+      }
+    }
+  }
+
+  /**
+   * Fingerprinter that computes HMAC-SHA256 locally.
+   */
+  private static final class LocalHmacFingerprinter implements Fingerprinter {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Mac instances are stateful and not thread-safe, so each thread keeps its own.
+    private final ThreadLocal<Mac> mac;
+
+    private LocalHmacFingerprinter(String keyBase64) {
+      byte[] keyBytes = Base64.getDecoder().decode(keyBase64);
+      if (keyBytes.length < 32) {
+        throw new IllegalStateException("card.fingerprint.key must decode to at least 32 bytes");
+      }
+      SecretKeySpec key = new SecretKeySpec(keyBytes, ALGORITHM);
+      newMac(key);
+      this.mac = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    @Override
+    public byte[] mac(byte[] data) {
+      return mac.get().doFinal(data);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+      try {
+        Mac instance = Mac.getInstance(ALGORITHM);
+        instance.init(key);
+        return instance;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("Failed to initialise HMAC fingerprint key", e);
+      }
+    }
+  }
+}
@@ -13,17 +13,15 @@ import org.springframework.stereotype.Service;
 public class CardHashService {
 
   private static final HexFormat HEX = HexFormat.of();
-  private final MessageDigest digest;
+  // MessageDigest is stateful and not thread-safe, so each request thread gets its own instance.
+  private final ThreadLocal<MessageDigest> digest;
 
   /**
    * Creates a hash service backed by SHA-256.
    */
   public CardHashService() {
-    try {
-      this.digest = MessageDigest.getInstance("SHA-256");
-    } catch (NoSuchAlgorithmException e) {
-      throw new IllegalStateException("SHA-256 algorithm not available", e);
-    }
+    newDigest();
+    this.digest = ThreadLocal.withInitial(CardHashService::newDigest);
   }
 
   /**
@@ -34,7 +32,15 @@ public class CardHashService {
    */
   public String hashLastFour(String lastFourDigits) {
     byte[] input = lastFourDigits.getBytes(StandardCharsets.UTF_8);
-    byte[] hashed = digest.digest(input);
+    byte[] hashed = digest.get().digest(input);
     return HEX.formatHex(hashed);
   }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  }
 }
@@ -0,0 +1,360 @@
+package com.card.Card_management.service;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.model.ReencryptionCheckpoint;
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.repository.InMemoryReencryptionCheckpointStore;
+import com.card.Card_management.repository.ReencryptionCheckpointStore;
+import com.card.Card_management.web.dto.ReencryptionStatusResponse;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background job that re-encrypts every stored PAN with the current key after a key rotation.
+ *
+ * <p>The collection is walked in id order one page at a time. Each page is re-encrypted by a
+ * bounded worker pool while the next page is fetched, written back with batched updates, and then
+ * recorded as a checkpoint so an interrupted run resumes after the last committed page.
+ *
+ * <p>Cards that fail to re-encrypt are recorded in the checkpoint, and the run finishes as
+ * {@link State#COMPLETED_WITH_ERRORS} rather than {@link State#COMPLETED}. The next run retries
+ * them before continuing. A run stops as {@link State#FAILED} once more than
+ * {@code card.reencryption.max-failures} cards are failing, which points at a systemic problem
+ * such as an unreachable key rather than at individual cards.
+ */
+@Service
+public class CardReencryptionJob {
+
+  private static final Logger log = LoggerFactory.getLogger(CardReencryptionJob.class);
+
+  /** Lifecycle of a job run. */
+  public enum State {
+    IDLE,
+    RUNNING,
+    STOPPING,
+    STOPPED,
+    COMPLETED,
+    COMPLETED_WITH_ERRORS,
+    FAILED
+  }
+
+  private final CardRepository cardRepository;
+  private final CardEncryptionService encryptionService;
+  private final ReencryptionCheckpointStore checkpointStore;
+  private final int pageSize;
+  private final int parallelism;
+  private final int maxFailures;
+
+  private final Object lock = new Object();
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong pages = new AtomicLong();
+  private final Set<String> failedIds = new LinkedHashSet<>();
+
+  private ExecutorService workers;
+  private volatile State state = State.IDLE;
+  private volatile boolean stopRequested;
+  private volatile long processedAtRunStart;
+  private volatile String lastProcessedId;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String lastError;
+
+  /**
+   * Creates the job. Falls back to an in-memory checkpoint when no durable store is configured.
+   *
+   * @param pageSize number of cards read and written per page
+   * @param parallelism number of worker threads performing decrypt/encrypt calls
+   * @param maxFailures number of failing cards above which a run gives up
+   */
+  public CardReencryptionJob(
+      CardRepository cardRepository,
+      CardEncryptionService encryptionService,
+      ObjectProvider<ReencryptionCheckpointStore> checkpointStore,
+      @Value("${card.reencryption.page-size:200}") int pageSize,
+      @Value("${card.reencryption.parallelism:8}") int parallelism,
+      @Value("${card.reencryption.max-failures:1000}") int maxFailures) {
+    if (pageSize < 1 || parallelism < 1) {
+      throw new IllegalStateException(
+          "card.reencryption.page-size and card.reencryption.parallelism must be positive");
+    }
+    if (maxFailures < 0) {
+      throw new IllegalStateException("card.reencryption.max-failures must not be negative");
+    }
+    this.cardRepository = cardRepository;
+    this.encryptionService = encryptionService;
+    this.checkpointStore = checkpointStore.getIfAvailable(InMemoryReencryptionCheckpointStore::new);
+    this.pageSize = pageSize;
+    this.parallelism = parallelism;
+    this.maxFailures = maxFailures;
+  }
+
+  /**
+   * Starts a run in the background, resuming from the stored checkpoint unless asked to restart.
+   * A resumed run first retries the cards that failed in earlier runs.
+   *
+   * @param restart discard any stored checkpoint and start from the first card
+   * @return {@code false} when a run is already in progress
+   */
+  public boolean start(boolean restart) {
+    synchronized (lock) {
+      if (state == State.RUNNING || state == State.STOPPING) {
+        return false;
+      }
+      if (restart) {
+        checkpointStore.clear();
+      }
+      ReencryptionCheckpoint checkpoint =
+          checkpointStore.load().filter(stored -> !stored.isCompleted()).orElse(null);
+
+      processed.set(checkpoint != null ? checkpoint.getProcessed() : 0);
+      failedIds.clear();
+      if (checkpoint != null) {
+        failedIds.addAll(checkpoint.getFailedIds());
+      }
+      failed.set(failedIds.size());
+      pages.set(0);
+      processedAtRunStart = processed.get();
+      lastProcessedId = checkpoint != null ? checkpoint.getLastProcessedId() : null;
+      startedAt = Instant.now();
+      finishedAt = null;
+      lastError = null;
+      stopRequested = false;
+      state = State.RUNNING;
+
+      workers = Executors.newFixedThreadPool(parallelism, daemonThreads("card-reencrypt-worker-"));
+      Thread coordinator = new Thread(this::run, "card-reencrypt-coordinator");
+      coordinator.setDaemon(true);
+      coordinator.start();
+      log.info(
+          "Started PAN re-encryption {} (pageSize={}, parallelism={})",
+          lastProcessedId != null ? "after card " + lastProcessedId : "from the beginning",
+          pageSize,
+          parallelism);
+      return true;
+    }
+  }
+
+  /**
+   * Asks a running job to stop after its current page has been committed.
+   */
+  public void stop() {
+    synchronized (lock) {
+      if (state == State.RUNNING) {
+        stopRequested = true;
+        state = State.STOPPING;
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the job's progress.
+   *
+   * @return current status, or the stored checkpoint when nothing has run since startup
+   */
+  public ReencryptionStatusResponse status() {
+    if (state == State.IDLE) {
+      return checkpointStore
+          .load()
+          .map(
+              checkpoint ->
+                  new ReencryptionStatusResponse(
+                      checkpoint.isCompleted() ? State.COMPLETED.name() : State.IDLE.name(),
+                      checkpoint.getProcessed(),
+                      checkpoint.getFailed(),
+                      0,
+                      checkpoint.getLastProcessedId(),
+                      checkpoint.getStartedAt(),
+                      checkpoint.isCompleted() ? checkpoint.getUpdatedAt() : null,
+                      0,
+                      null))
+          .orElseGet(
+              () ->
+                  new ReencryptionStatusResponse(
+                      State.IDLE.name(), 0, 0, 0, null, null, null, 0, null));
+    }
+
+    Instant end = finishedAt != null ? finishedAt : Instant.now();
+    double seconds = Duration.between(startedAt, end).toMillis() / 1000d;
+    long processedThisRun = processed.get() - processedAtRunStart;
+    return new ReencryptionStatusResponse(
+        state.name(),
+        processed.get(),
+        failed.get(),
+        pages.get(),
+        lastProcessedId,
+        startedAt,
+        finishedAt,
+        seconds > 0 ? processedThisRun / seconds : 0,
+        lastError);
+  }
+
+  /** Stops accepting work when the application shuts down; the checkpoint allows resuming. */
+  @PreDestroy
+  public void shutdown() {
+    stopRequested = true;
+    synchronized (lock) {
+      if (workers != null) {
+        workers.shutdownNow();
+      }
+    }
+  }
+
+  private void run() {
+    try {
+      retryFailedCards();
+      List<CardRecord> page = cardRepository.findPageAfter(lastProcessedId, pageSize);
+      while (!page.isEmpty() && !stopRequested) {
+        List<Future<byte[]>> results = submit(page);
+
+        // Fetch the next page while the workers are busy with this one.
+        String pageLastId = page.get(page.size() - 1).getId();
+        List<CardRecord> next =
+            page.size() < pageSize ? List.of() : cardRepository.findPageAfter(pageLastId, pageSize);
+
+        commit(page, results);
+        if (failedIds.size() > maxFailures) {
+          throw new IllegalStateException(
+              failedIds.size() + " cards failed to re-encrypt, more than " + maxFailures);
+        }
+        pages.incrementAndGet();
+        lastProcessedId = pageLastId;
+        checkpointStore.save(checkpoint(false));
+        page = next;
+      }
+
+      if (!page.isEmpty()) {
+        finish(State.STOPPED);
+      } else if (failedIds.isEmpty()) {
+        checkpointStore.save(checkpoint(true));
+        finish(State.COMPLETED);
+      } else {
+        checkpointStore.save(checkpoint(false));
+        finish(State.COMPLETED_WITH_ERRORS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      finish(State.STOPPED);
+    } catch (RuntimeException e) {
+      log.error("PAN re-encryption failed after card {}", lastProcessedId, e);
+      lastError = e.getMessage();
+      finish(State.FAILED);
+    }
+  }
+
+  /** Re-encrypts the cards that failed in earlier runs; cards deleted since are dropped. */
+  private void retryFailedCards() throws InterruptedException {
+    if (failedIds.isEmpty()) {
+      return;
+    }
+    log.info("Retrying {} cards that previously failed to re-encrypt", failedIds.size());
+    List<String> ids = new ArrayList<>(failedIds);
+    for (int from = 0; from < ids.size(); from += pageSize) {
+      List<String> chunk = ids.subList(from, Math.min(from + pageSize, ids.size()));
+      List<CardRecord> cards = cardRepository.findAllById(chunk);
+      chunk.forEach(failedIds::remove);
+      commit(cards, submit(cards));
+    }
+    checkpointStore.save(checkpoint(false));
+  }
+
+  private List<Future<byte[]>> submit(List<CardRecord> cards) {
+    List<Future<byte[]>> results = new ArrayList<>(cards.size());
+    for (CardRecord record : cards) {
+      results.add(workers.submit(() -> reencrypt(record)));
+    }
+    return results;
+  }
+
+  /** Writes back the re-encrypted cards and records the ones that failed. */
+  private void commit(List<CardRecord> cards, List<Future<byte[]>> results)
+      throws InterruptedException {
+    Map<String, byte[]> updates = new LinkedHashMap<>();
+    for (int i = 0; i < cards.size(); i++) {
+      String id = cards.get(i).getId();
+      try {
+        byte[] ciphertext = results.get(i).get();
+        if (ciphertext != null) {
+          updates.put(id, ciphertext);
+        }
+      } catch (ExecutionException e) {
+        failedIds.add(id);
+        log.warn("Failed to re-encrypt card {}", id, e.getCause());
+      }
+    }
+    if (!updates.isEmpty()) {
+      cardRepository.replaceCiphertexts(updates);
+    }
+    processed.addAndGet(updates.size());
+    failed.set(failedIds.size());
+  }
+
+  /**
+   * Re-encrypts one record, reading legacy Base64 ciphertext when no bytes are stored.
+   */
+  private byte[] reencrypt(CardRecord record) {
+    byte[] ciphertext = record.getPanCiphertextBytes();
+    if (ciphertext == null || ciphertext.length == 0) {
+      String legacyCiphertext = record.getPanCiphertext();
+      if (legacyCiphertext == null || legacyCiphertext.isBlank()) {
+        log.warn("Card {} is missing ciphertext; skipping re-encryption", record.getId());
+        return null;
+      }
+      ciphertext = Base64.getDecoder().decode(legacyCiphertext);
+    }
+    return encryptionService.reencryptPan(ciphertext);
+  }
+
+  private ReencryptionCheckpoint checkpoint(boolean completed) {
+    return new ReencryptionCheckpoint(
+        lastProcessedId,
+        processed.get(),
+        new ArrayList<>(failedIds),
+        startedAt,
+        Instant.now(),
+        completed);
+  }
+
+  private void finish(State finalState) {
+    synchronized (lock) {
+      finishedAt = Instant.now();
+      state = finalState;
+      workers.shutdown();
+    }
+    log.info(
+        "PAN re-encryption {}: processed={} failed={} lastId={}",
+        finalState,
+        processed.get(),
+        failed.get(),
+        lastProcessedId);
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
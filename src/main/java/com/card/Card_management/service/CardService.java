@@ -2,12 +2,24 @@ package com.card.Card_management.service;
 
 import com.card.Card_management.model.CardRecord;
 import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.repository.DuplicateCardException;
+import com.card.Card_management.web.dto.CardPageResponse;
 import com.card.Card_management.web.dto.CardResponse;
 import com.card.Card_management.web.dto.CreateCardRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -21,17 +33,45 @@ public class CardService {
   private final CardRepository cardRepository;
   private final CardEncryptionService encryptionService;
   private final CardHashService hashService;
+  private final CardFingerprintService fingerprintService;
+  private final SearchCoalescer searchCoalescer;
+  private final Validator validator;
+  private final boolean migrateCiphertextOnRead;
+  private final int maxLookupIds;
+  private final int maxLastFourValues;
+  private final int maxPageSize;
 
   /**
    * Creates a service that depends on Firestore and encryption utilities.
+   *
+   * @param validator bean validator applied to create requests, so that validation is timed
+   * @param migrateCiphertextOnRead whether legacy Base64 ciphertext is rewritten as bytes on read
+   * @param maxLookupIds maximum number of distinct ids accepted by {@link #lookupCards(List)}
+   * @param maxLastFourValues maximum number of distinct suffixes accepted by {@link
+   *     #searchByLastFours(Collection)}
+   * @param maxPageSize largest page accepted by {@link #getCardPage(String, int)}
    */
   public CardService(
       CardRepository cardRepository,
       CardEncryptionService encryptionService,
-      CardHashService hashService) {
+      CardHashService hashService,
+      CardFingerprintService fingerprintService,
+      SearchCoalescer searchCoalescer,
+      Validator validator,
+      @Value("${card.ciphertext.migrate-on-read:true}") boolean migrateCiphertextOnRead,
+      @Value("${card.lookup.max-ids:100}") int maxLookupIds,
+      @Value("${card.search.max-last4-values:100}") int maxLastFourValues,
+      @Value("${card.page.max-size:200}") int maxPageSize) {
     this.cardRepository = cardRepository;
     this.encryptionService = encryptionService;
     this.hashService = hashService;
+    this.fingerprintService = fingerprintService;
+    this.searchCoalescer = searchCoalescer;
+    this.validator = validator;
+    this.migrateCiphertextOnRead = migrateCiphertextOnRead;
+    this.maxLookupIds = maxLookupIds;
+    this.maxLastFourValues = maxLastFourValues;
+    this.maxPageSize = maxPageSize;
   }
 
   /**
@@ -39,12 +79,34 @@ public class CardService {
    *
    * @param request incoming card creation request
    * @return response describing the persisted card
+   * @throws IllegalArgumentException if the request violates its validation constraints
+   * @throws DuplicateCardException if a card with the same PAN is already stored
    */
   public CardResponse createCard(CreateCardRequest request) {
+    RequestTiming timing = RequestTiming.current();
     Instant now = Instant.now();
+
+    long phaseStart = timing.mark();
+    validate(request);
+    timing.record(RequestTiming.VALIDATION, phaseStart);
     String pan = request.getPan();
-    String panCiphertext = encryptionService.encryptPan(pan);
+
+    phaseStart = timing.mark();
+    String panFingerprint = fingerprintService.fingerprint(pan);
     String lastFourHash = hashService.hashLastFour(pan.substring(pan.length() - 4));
+    timing.record(RequestTiming.HASH, phaseStart);
+
+    phaseStart = timing.mark();
+    boolean duplicate =
+        panFingerprint != null && cardRepository.existsByPanFingerprint(panFingerprint);
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+    if (duplicate) {
+      throw new DuplicateCardException("A card with this PAN already exists");
+    }
+
+    phaseStart = timing.mark();
+    byte[] panCiphertext = encryptionService.encryptPanBytes(pan);
+    timing.record(RequestTiming.ENCRYPT, phaseStart);
 
     CardRecord record =
         new CardRecord(
@@ -52,9 +114,12 @@ public class CardService {
             request.getCardholderName().trim(),
             panCiphertext,
             lastFourHash,
+            panFingerprint,
             now);
 
+    phaseStart = timing.mark();
     CardRecord saved = cardRepository.save(record);
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
     log.debug("Persisted card {} for {}", saved.getId(), saved.getCardholderName());
     return toResponse(saved, pan);
   }
@@ -70,27 +135,179 @@ public class CardService {
       return fetchAllRecords().stream().map(this::toResponse).toList();
     }
 
-    String trimmed = lastFour.trim();
-    if (trimmed.length() != 4 || !trimmed.matches("\\d{4}")) {
-      throw new IllegalArgumentException("Last four digits must be exactly 4 numbers");
-    }
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    String trimmed = validLastFour(lastFour);
+    timing.record(RequestTiming.VALIDATION, phaseStart);
 
+    phaseStart = timing.mark();
     String hash = hashService.hashLastFour(trimmed);
-    return fetchByLastFourHash(hash).stream().map(this::toResponse).toList();
+    timing.record(RequestTiming.HASH, phaseStart);
+
+    // Concurrent searches for the same suffix share one repository query and decrypt pass. Only
+    // the caller that runs the lookup records its repository and decrypt phases.
+    return searchCoalescer.execute(
+        hash, () -> fetchByLastFourHash(hash).stream().map(this::toResponse).toList());
+  }
+
+  /**
+   * Returns one page of cards ordered by id, so clients can load large portfolios incrementally
+   * instead of fetching and decrypting every card at once.
+   *
+   * @param pageToken {@code nextPageToken} of the previous page, or {@code null} for the first page
+   * @param size number of cards per page
+   * @return masked cards of the page and the token for the next one
+   * @throws IllegalArgumentException if the size is not between 1 and {@code card.page.max-size}
+   */
+  public CardPageResponse getCardPage(String pageToken, int size) {
+    if (size < 1 || size > maxPageSize) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+    }
+    String afterId = pageToken == null || pageToken.isBlank() ? null : pageToken;
+
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    List<CardRecord> records = cardRepository.findPageAfter(afterId, size);
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+
+    // A short page means the end was reached; a full one may be followed by an empty page.
+    String nextPageToken = records.size() < size ? null : records.get(records.size() - 1).getId();
+    return new CardPageResponse(records.stream().map(this::toResponse).toList(), nextPageToken);
+  }
+
+  /**
+   * Counts stored cards without reading or decrypting them.
+   *
+   * @return number of stored cards
+   */
+  public long countCards() {
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    long count = cardRepository.count();
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+    return count;
+  }
+
+  /**
+   * Searches several last-four suffixes at once. The suffixes are hashed and matched with a
+   * handful of batched repository queries rather than one query per value.
+   *
+   * @param lastFours four-digit suffixes; duplicates are ignored
+   * @return matching cards grouped by suffix, in request order; suffixes without matches map to an
+   *     empty list
+   * @throws IllegalArgumentException if a value is not four digits or too many are supplied
+   */
+  public Map<String, List<CardResponse>> searchByLastFours(Collection<String> lastFours) {
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    LinkedHashSet<String> suffixes = new LinkedHashSet<>();
+    for (String lastFour : lastFours) {
+      suffixes.add(validLastFour(lastFour));
+    }
+    if (suffixes.size() > maxLastFourValues) {
+      throw new IllegalArgumentException(
+          "At most " + maxLastFourValues + " last-four values can be searched at once");
+    }
+    timing.record(RequestTiming.VALIDATION, phaseStart);
+
+    phaseStart = timing.mark();
+    Map<String, String> suffixByHash = new HashMap<>();
+    for (String suffix : suffixes) {
+      suffixByHash.put(hashService.hashLastFour(suffix), suffix);
+    }
+    timing.record(RequestTiming.HASH, phaseStart);
+
+    phaseStart = timing.mark();
+    List<CardRecord> records = cardRepository.findByLastFourHashes(suffixByHash.keySet());
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+
+    Map<String, List<CardResponse>> results = new LinkedHashMap<>();
+    for (String suffix : suffixes) {
+      results.put(suffix, new ArrayList<>());
+    }
+    for (CardRecord record : records) {
+      String suffix = suffixByHash.get(record.getLastFourHash());
+      if (suffix != null) {
+        results.get(suffix).add(toResponse(record));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Fetches cards by id with a single batched repository read.
+   *
+   * @param ids card identifiers; duplicates are ignored and unknown ids skipped
+   * @return mask-only representations of the cards found, in request order
+   * @throws IllegalArgumentException if no ids, a blank id, or too many ids are supplied
+   */
+  public List<CardResponse> lookupCards(List<String> ids) {
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    if (ids == null || ids.isEmpty()) {
+      throw new IllegalArgumentException("At least one card id is required");
+    }
+    LinkedHashSet<String> distinctIds = new LinkedHashSet<>();
+    for (String id : ids) {
+      if (id == null || id.isBlank()) {
+        throw new IllegalArgumentException("Card ids must not be blank");
+      }
+      distinctIds.add(id.trim());
+    }
+    if (distinctIds.size() > maxLookupIds) {
+      throw new IllegalArgumentException(
+          "At most " + maxLookupIds + " card ids can be looked up at once");
+    }
+    timing.record(RequestTiming.VALIDATION, phaseStart);
+
+    phaseStart = timing.mark();
+    List<CardRecord> records = cardRepository.findAllById(distinctIds);
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+    return records.stream().map(this::toResponse).toList();
   }
 
   /**
    * Loads every document in the card collection.
    */
   private List<CardRecord> fetchAllRecords() {
-    return cardRepository.findAll();
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    List<CardRecord> records = cardRepository.findAll();
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+    return records;
   }
 
   /**
    * Queries Firestore documents by a precomputed last-four hash.
    */
   private List<CardRecord> fetchByLastFourHash(String hash) {
-    return cardRepository.findByLastFourHash(hash);
+    RequestTiming timing = RequestTiming.current();
+    long phaseStart = timing.mark();
+    List<CardRecord> records = cardRepository.findByLastFourHash(hash);
+    timing.record(RequestTiming.REPOSITORY, phaseStart);
+    return records;
+  }
+
+  /**
+   * Checks a create request against its bean validation constraints.
+   */
+  private void validate(CreateCardRequest request) {
+    List<String> violations =
+        validator.validate(request).stream().map(ConstraintViolation::getMessage).sorted().toList();
+    if (!violations.isEmpty()) {
+      throw new IllegalArgumentException(String.join("; ", violations));
+    }
+  }
+
+  /**
+   * Trims a last-four filter and checks that it is exactly four digits.
+   */
+  private String validLastFour(String lastFour) {
+    String trimmed = lastFour == null ? "" : lastFour.trim();
+    if (trimmed.length() != 4 || !trimmed.matches("\\d{4}")) {
+      throw new IllegalArgumentException("Last four digits must be exactly 4 numbers");
+    }
+    return trimmed;
   }
 
   /**
@@ -115,15 +332,45 @@ public class CardService {
   }
 
   /**
-   * Decrypts the stored PAN when ciphertext is present.
+   * Decrypts the stored PAN when ciphertext is present, falling back to the legacy Base64 field.
    */
   private String decryptPan(CardRecord record) {
-    String ciphertext = record.getPanCiphertext();
-    if (ciphertext == null || ciphertext.isBlank()) {
+    RequestTiming timing = RequestTiming.current();
+    byte[] ciphertext = record.getPanCiphertextBytes();
+    if (ciphertext != null && ciphertext.length > 0) {
+      long phaseStart = timing.mark();
+      String pan = encryptionService.decryptPan(ciphertext);
+      timing.record(RequestTiming.DECRYPT, phaseStart, record.getId());
+      return pan;
+    }
+
+    String legacyCiphertext = record.getPanCiphertext();
+    if (legacyCiphertext == null || legacyCiphertext.isBlank()) {
       log.warn("Card {} is missing ciphertext; skipping decryption", record.getId());
       return "";
     }
-    return encryptionService.decryptPan(ciphertext);
+    long phaseStart = timing.mark();
+    byte[] decoded = Base64.getDecoder().decode(legacyCiphertext);
+    String pan = encryptionService.decryptPan(decoded);
+    timing.record(RequestTiming.DECRYPT, phaseStart, record.getId());
+    migrateLegacyCiphertext(record, legacyCiphertext);
+    return pan;
+  }
+
+  /**
+   * Rewrites a legacy Base64 ciphertext as raw bytes. The bytes are unchanged, so no re-encryption
+   * is needed, and a failed migration is retried on the next read. The write is skipped if the card
+   * changed since it was read, so it cannot undo a concurrent re-encryption.
+   */
+  private void migrateLegacyCiphertext(CardRecord record, String legacyCiphertext) {
+    if (!migrateCiphertextOnRead || record.getId() == null) {
+      return;
+    }
+    try {
+      cardRepository.migrateLegacyCiphertext(record.getId(), legacyCiphertext);
+    } catch (RuntimeException e) {
+      log.warn("Could not migrate ciphertext of card {}", record.getId(), e);
+    }
   }
 
   /**
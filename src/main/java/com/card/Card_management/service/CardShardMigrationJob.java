@@ -0,0 +1,125 @@
+package com.card.Card_management.service;
+
+import com.card.Card_management.repository.CardShardMigrator;
+import com.card.Card_management.web.dto.ShardMigrationStatusResponse;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs {@link CardShardMigrator} in the background after {@code card.firestore.shards} changes.
+ * The migration is idempotent, so a stopped or failed run is simply started again.
+ */
+@Service
+public class CardShardMigrationJob {
+
+  private static final Logger log = LoggerFactory.getLogger(CardShardMigrationJob.class);
+
+  /** Lifecycle of a migration run. */
+  public enum State {
+    IDLE,
+    RUNNING,
+    STOPPING,
+    STOPPED,
+    COMPLETED,
+    FAILED,
+    UNAVAILABLE
+  }
+
+  private final CardShardMigrator migrator;
+  private final int pageSize;
+
+  private final Object lock = new Object();
+  private final AtomicLong moved = new AtomicLong();
+  private volatile State state;
+  private volatile boolean stopRequested;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String lastError;
+
+  /**
+   * Creates the job. It reports {@link State#UNAVAILABLE} when Firestore is not configured.
+   *
+   * @param pageSize number of card documents read per page
+   */
+  public CardShardMigrationJob(
+      ObjectProvider<CardShardMigrator> migrator,
+      @Value("${card.firestore.migration-page-size:500}") int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalStateException("card.firestore.migration-page-size must be positive");
+    }
+    this.migrator = migrator.getIfAvailable();
+    this.pageSize = pageSize;
+    this.state = this.migrator != null ? State.IDLE : State.UNAVAILABLE;
+  }
+
+  /**
+   * Starts a migration pass in the background.
+   *
+   * @return {@code false} when a pass is already running or Firestore is not configured
+   */
+  public boolean start() {
+    synchronized (lock) {
+      if (migrator == null || state == State.RUNNING || state == State.STOPPING) {
+        return false;
+      }
+      moved.set(0);
+      startedAt = Instant.now();
+      finishedAt = null;
+      lastError = null;
+      stopRequested = false;
+      state = State.RUNNING;
+
+      Thread worker = new Thread(this::run, "card-shard-migration");
+      worker.setDaemon(true);
+      worker.start();
+      log.info("Started card shard migration (pageSize={})", pageSize);
+      return true;
+    }
+  }
+
+  /** Asks a running pass to stop after its current page. */
+  public void stop() {
+    synchronized (lock) {
+      if (state == State.RUNNING) {
+        stopRequested = true;
+        state = State.STOPPING;
+      }
+    }
+  }
+
+  /** Returns a snapshot of the current or last pass. */
+  public ShardMigrationStatusResponse status() {
+    return new ShardMigrationStatusResponse(
+        state.name(), moved.get(), startedAt, finishedAt, lastError);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    stopRequested = true;
+  }
+
+  private void run() {
+    try {
+      migrator.migrate(pageSize, () -> stopRequested, moved::set);
+      finish(stopRequested ? State.STOPPED : State.COMPLETED);
+    } catch (RuntimeException e) {
+      log.error("Card shard migration failed after moving {} cards", moved.get(), e);
+      lastError = e.getMessage();
+      finish(State.FAILED);
+    }
+  }
+
+  private void finish(State finalState) {
+    synchronized (lock) {
+      finishedAt = Instant.now();
+      state = finalState;
+    }
+    log.info("Card shard migration {}: moved={}", finalState, moved.get());
+  }
+}
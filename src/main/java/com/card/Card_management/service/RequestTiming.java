@@ -0,0 +1,215 @@
+package com.card.Card_management.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-request record of how long each processing phase took.
+ *
+ * <p>A recorder is bound to the request thread by {@link #startRequest()}. Code on that thread
+ * times a phase with {@link #mark()} and {@link #record(String, long)}. When no recorder is bound,
+ * {@link #current()} returns a shared no-op instance that does not even read the clock, so
+ * instrumented code costs a thread-local lookup when timing is off. Instances are confined to
+ * their request thread and are not thread-safe.
+ */
+public final class RequestTiming {
+
+  public static final String VALIDATION = "validate";
+  public static final String HASH = "hash";
+  public static final String ENCRYPT = "encrypt";
+  public static final String DECRYPT = "decrypt";
+  public static final String REPOSITORY = "repo";
+  public static final String SERIALIZATION = "serialize";
+
+  // Per-record entries only feed the slow-request log; cap them so huge listings stay bounded.
+  private static final int MAX_RECORD_TIMINGS = 200;
+
+  private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+  private static final RequestTiming NOOP = new RequestTiming(false);
+
+  private final boolean active;
+  private final long startNanos;
+  private final Map<String, Phase> phases;
+  private final List<RecordTiming> records;
+  private int droppedRecords;
+  private long serializationStartNanos;
+
+  private RequestTiming(boolean active) {
+    this.active = active;
+    this.startNanos = active ? System.nanoTime() : 0;
+    this.phases = active ? new LinkedHashMap<>() : Map.of();
+    this.records = active ? new ArrayList<>() : List.of();
+  }
+
+  /** Binds a new recorder to the current thread and returns it. */
+  public static RequestTiming startRequest() {
+    RequestTiming timing = new RequestTiming(true);
+    CURRENT.set(timing);
+    return timing;
+  }
+
+  /** Unbinds the current thread's recorder. */
+  public static void finishRequest() {
+    CURRENT.remove();
+  }
+
+  /** Returns the recorder bound to this thread, or a no-op recorder. */
+  public static RequestTiming current() {
+    RequestTiming timing = CURRENT.get();
+    return timing != null ? timing : NOOP;
+  }
+
+  /** Whether this recorder keeps measurements. */
+  public boolean isActive() {
+    return active;
+  }
+
+  /** Returns the start time for a phase measurement; {@code 0} when inactive. */
+  public long mark() {
+    return active ? System.nanoTime() : 0;
+  }
+
+  /** Adds the time since {@code startNanos} to {@code phase}. */
+  public void record(String phase, long startNanos) {
+    if (active) {
+      add(phase, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Adds the time since {@code startNanos} to {@code phase} and keeps it as a per-record entry for
+   * the slow-request log.
+   */
+  public void record(String phase, long startNanos, String recordId) {
+    if (!active) {
+      return;
+    }
+    long nanos = System.nanoTime() - startNanos;
+    add(phase, nanos);
+    if (records.size() < MAX_RECORD_TIMINGS) {
+      records.add(new RecordTiming(phase, recordId, nanos));
+    } else {
+      droppedRecords++;
+    }
+  }
+
+  /** Notes that response serialization has begun; ended by {@link #finishSerialization()}. */
+  public void markSerializationStart() {
+    if (active) {
+      serializationStartNanos = System.nanoTime();
+    }
+  }
+
+  /** Records the serialization phase if it was started. */
+  public void finishSerialization() {
+    if (active && serializationStartNanos != 0) {
+      record(SERIALIZATION, serializationStartNanos);
+      serializationStartNanos = 0;
+    }
+  }
+
+  /** Nanoseconds since the request started. */
+  public long elapsedNanos() {
+    return active ? System.nanoTime() - startNanos : 0;
+  }
+
+  /** Accumulated phases in the order they were first recorded. */
+  public Map<String, Phase> phases() {
+    return Collections.unmodifiableMap(phases);
+  }
+
+  /** Per-record measurements, capped at {@value #MAX_RECORD_TIMINGS} entries. */
+  public List<RecordTiming> records() {
+    return Collections.unmodifiableList(records);
+  }
+
+  /** Number of per-record measurements dropped because of the cap. */
+  public int droppedRecords() {
+    return droppedRecords;
+  }
+
+  /**
+   * Formats the phases as a {@code Server-Timing} header value, ending with the total. Phases
+   * measured more than once carry a count and maximum in their description.
+   */
+  public String toServerTimingHeader(long totalNanos) {
+    StringBuilder header = new StringBuilder();
+    for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+      Phase phase = entry.getValue();
+      header.append(entry.getKey()).append(";dur=").append(millis(phase.getTotalNanos()));
+      if (phase.getCount() > 1) {
+        header
+            .append(";desc=\"")
+            .append(phase.getCount())
+            .append(" x, max ")
+            .append(millis(phase.getMaxNanos()))
+            .append("ms\"");
+      }
+      header.append(", ");
+    }
+    return header.append("total;dur=").append(millis(totalNanos)).toString();
+  }
+
+  /** Formats a duration in milliseconds with microsecond precision. */
+  public static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000d);
+  }
+
+  private void add(String phase, long nanos) {
+    phases.computeIfAbsent(phase, name -> new Phase()).add(nanos);
+  }
+
+  /** Accumulated duration of one phase. */
+  public static final class Phase {
+    private long totalNanos;
+    private int count;
+    private long maxNanos;
+
+    private void add(long nanos) {
+      totalNanos += nanos;
+      count++;
+      maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+  }
+
+  /** Duration of one phase for one card. */
+  public static final class RecordTiming {
+    private final String phase;
+    private final String recordId;
+    private final long nanos;
+
+    private RecordTiming(String phase, String recordId, long nanos) {
+      this.phase = phase;
+      this.recordId = recordId;
+      this.nanos = nanos;
+    }
+
+    public String getPhase() {
+      return phase;
+    }
+
+    public String getRecordId() {
+      return recordId;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+  }
+}
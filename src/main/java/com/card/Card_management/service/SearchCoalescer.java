@@ -0,0 +1,116 @@
+package com.card.Card_management.service;
+
+import com.card.Card_management.web.dto.CardResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight coalescing for card searches: while a lookup for a given key is in flight, other
+ * callers with the same key wait for its result instead of issuing their own repository query and
+ * decrypt pass. Every caller receives its own copy of the result list.
+ */
+@Component
+public class SearchCoalescer {
+
+  private final Map<String, CompletableFuture<List<CardResponse>>> inFlight =
+      new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final int maxInFlightKeys;
+  private final Duration maxWait;
+
+  private final Counter leaders;
+  private final Counter followers;
+  private final Counter bypassed;
+  private final Counter timedOut;
+
+  /**
+   * Creates a coalescer and registers its metrics.
+   *
+   * @param enabled whether identical concurrent searches are coalesced at all
+   * @param maxInFlightKeys distinct keys tracked at once; further searches run uncoalesced
+   * @param maxWait how long a follower waits for the leader before running its own lookup
+   * @param meterRegistry registry receiving the {@code card.search.coalescing} counters
+   */
+  public SearchCoalescer(
+      @Value("${card.search.coalescing.enabled:true}") boolean enabled,
+      @Value("${card.search.coalescing.max-in-flight-keys:1000}") int maxInFlightKeys,
+      @Value("${card.search.coalescing.max-wait:5s}") Duration maxWait,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.maxInFlightKeys = maxInFlightKeys;
+    this.maxWait = maxWait;
+    this.leaders = outcomeCounter(meterRegistry, "leader");
+    this.followers = outcomeCounter(meterRegistry, "coalesced");
+    this.bypassed = outcomeCounter(meterRegistry, "bypassed");
+    this.timedOut = outcomeCounter(meterRegistry, "timeout");
+    meterRegistry.gauge("card.search.coalescing.in-flight", inFlight, Map::size);
+  }
+
+  /**
+   * Runs {@code loader} for {@code key}, or joins an identical lookup that is already running.
+   *
+   * @param key identity of the lookup, e.g. the last-four hash
+   * @param loader performs the actual lookup
+   * @return a list owned by the caller
+   */
+  public List<CardResponse> execute(String key, Supplier<List<CardResponse>> loader) {
+    if (!enabled) {
+      return loader.get();
+    }
+    if (inFlight.size() >= maxInFlightKeys) {
+      bypassed.increment();
+      return loader.get();
+    }
+
+    CompletableFuture<List<CardResponse>> mine = new CompletableFuture<>();
+    CompletableFuture<List<CardResponse>> existing = inFlight.putIfAbsent(key, mine);
+    if (existing == null) {
+      leaders.increment();
+      try {
+        List<CardResponse> result = loader.get();
+        mine.complete(result);
+        return new ArrayList<>(result);
+      } catch (RuntimeException e) {
+        mine.completeExceptionally(e);
+        throw e;
+      } finally {
+        inFlight.remove(key, mine);
+      }
+    }
+
+    followers.increment();
+    try {
+      return new ArrayList<>(existing.get(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+    } catch (TimeoutException e) {
+      timedOut.increment();
+      return loader.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Coalesced card search failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for card search", e);
+    }
+  }
+
+  private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+    return Counter.builder("card.search.coalescing")
+        .description("Card searches by coalescing outcome")
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+}
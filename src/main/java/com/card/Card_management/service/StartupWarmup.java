@@ -0,0 +1,166 @@
+package com.card.Card_management.service;
+
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.web.dto.CardResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exercises the request paths with synthetic data before the application takes traffic, so the
+ * first real requests do not pay for JIT compilation, JCE provider and Jackson serializer
+ * initialisation, or the first gRPC channel setup to Firestore and KMS.
+ *
+ * <p>Spring Boot only reports the readiness state as {@code ACCEPTING_TRAFFIC} after every
+ * {@link ApplicationRunner} has finished. Running the warm-up here therefore keeps the readiness
+ * probe down until it completes. As the {@code warmup} health indicator it reports how long each
+ * step took.
+ */
+@Component("warmup")
+public class StartupWarmup implements ApplicationRunner, HealthIndicator {
+
+  private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+  // Synthetic test PAN; it is never persisted.
+  private static final String SAMPLE_PAN = "4000000000000002";
+
+  private final CardEncryptionService encryptionService;
+  private final CardHashService hashService;
+  private final CardFingerprintService fingerprintService;
+  private final CardRepository cardRepository;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final int iterations;
+  private final Duration maxDuration;
+
+  private final Map<String, Object> stepMillis = new LinkedHashMap<>();
+  private volatile boolean finished;
+  private volatile Duration elapsed;
+
+  /**
+   * Creates the warm-up.
+   *
+   * @param enabled whether to warm up at all
+   * @param iterations repetitions of each local step; remote KMS calls are made once
+   * @param maxDuration budget after which remaining iterations are skipped
+   */
+  public StartupWarmup(
+      CardEncryptionService encryptionService,
+      CardHashService hashService,
+      CardFingerprintService fingerprintService,
+      CardRepository cardRepository,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${card.warmup.enabled:true}") boolean enabled,
+      @Value("${card.warmup.iterations:5000}") int iterations,
+      @Value("${card.warmup.max-duration:30s}") Duration maxDuration) {
+    this.encryptionService = encryptionService;
+    this.hashService = hashService;
+    this.fingerprintService = fingerprintService;
+    this.cardRepository = cardRepository;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.iterations = Math.max(iterations, 1);
+    this.maxDuration = maxDuration;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      finished = true;
+      return;
+    }
+    long start = System.nanoTime();
+    long deadline = start + maxDuration.toNanos();
+
+    int cryptoIterations = encryptionService.isRemote() ? 1 : iterations;
+    step(
+        "encryption",
+        cryptoIterations,
+        deadline,
+        () -> encryptionService.decryptPan(encryptionService.encryptPanBytes(SAMPLE_PAN)));
+    step("hash", iterations, deadline, () -> hashService.hashLastFour(SAMPLE_PAN.substring(12)));
+    if (fingerprintService.isEnabled()) {
+      int fingerprintIterations = fingerprintService.isRemote() ? 1 : iterations;
+      step(
+          "fingerprint",
+          fingerprintIterations,
+          deadline,
+          () -> fingerprintService.fingerprint(SAMPLE_PAN));
+    }
+    CardResponse sample =
+        new CardResponse("warmup", "Warm Up", "**** **** **** 0002", Instant.EPOCH);
+    step(
+        "serialization",
+        iterations,
+        deadline,
+        () -> {
+          objectMapper.writeValueAsBytes(List.of(sample));
+          objectMapper.writeValueAsBytes(Map.of("0002", List.of(sample)));
+          return null;
+        });
+    // One small read opens the repository's connections, e.g. the Firestore gRPC channel.
+    step("repository", 1, deadline, () -> cardRepository.findPageAfter(null, 1));
+
+    elapsed = Duration.ofNanos(System.nanoTime() - start);
+    finished = true;
+    Timer.builder("card.warmup")
+        .description("Time spent warming up before accepting traffic")
+        .register(meterRegistry)
+        .record(elapsed);
+    log.info("Warm-up finished in {} ms: {}", elapsed.toMillis(), stepMillis);
+  }
+
+  @Override
+  public Health health() {
+    if (!finished) {
+      return Health.outOfService().withDetail("warmup", "in progress").build();
+    }
+    if (!enabled) {
+      return Health.up().withDetail("warmup", "disabled").build();
+    }
+    return Health.up()
+        .withDetail("durationMs", elapsed.toMillis())
+        .withDetail("stepsMs", stepMillis)
+        .build();
+  }
+
+  /**
+   * Runs {@code action} up to {@code count} times. A failure is logged and ends the step without
+   * failing startup: the application still works, its first requests are just slower.
+   */
+  private void step(String name, int count, long deadline, WarmupAction action) {
+    long start = System.nanoTime();
+    int completed = 0;
+    try {
+      while (completed < count && (completed == 0 || System.nanoTime() < deadline)) {
+        action.run();
+        completed++;
+      }
+      stepMillis.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (Exception e) {
+      log.warn("Warm-up step {} failed after {} iterations", name, completed, e);
+      stepMillis.put(name, "failed: " + e.getMessage());
+    }
+  }
+
+  @FunctionalInterface
+  private interface WarmupAction {
+    Object run() throws Exception;
+  }
+}
@@ -1,12 +1,17 @@
 package com.card.Card_management.web;
 
+import com.card.Card_management.repository.DuplicateCardException;
 import com.card.Card_management.service.CardService;
+import com.card.Card_management.web.dto.CardLookupRequest;
+import com.card.Card_management.web.dto.CardPageResponse;
 import com.card.Card_management.web.dto.CardResponse;
 import com.card.Card_management.web.dto.CreateCardRequest;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,14 +33,14 @@ public class CardController {
   }
 
   /**
-   * Persists an encrypted card record.
+   * Persists an encrypted card record. The service validates the payload, so that validation is
+   * timed with the other phases of the request.
    *
    * @param request payload containing user-supplied card details
    * @return created card descriptor with masked PAN
    */
   @PostMapping
-  public ResponseEntity<CardResponse> createCard(
-      @Valid @RequestBody CreateCardRequest request) {
+  public ResponseEntity<CardResponse> createCard(@RequestBody CreateCardRequest request) {
     CardResponse response = cardService.createCard(request);
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
@@ -47,6 +52,26 @@ public class CardController {
     return ResponseEntity.ok(cardService.getCards(lastFour));
   }
 
+  /**
+   * Returns one page of cards ordered by id.
+   *
+   * @param pageToken {@code nextPageToken} of the previous page; omit for the first page
+   * @param size cards per page, up to {@code card.page.max-size}
+   * @return masked cards and the token for the next page, {@code null} after the last one
+   */
+  @GetMapping("/page")
+  public ResponseEntity<CardPageResponse> getCardPage(
+      @RequestParam(value = "after", required = false) String pageToken,
+      @RequestParam(value = "size", defaultValue = "50") int size) {
+    return ResponseEntity.ok(cardService.getCardPage(pageToken, size));
+  }
+
+  /** Returns the number of stored cards as {@code {"count": n}}. */
+  @GetMapping("/count")
+  public ResponseEntity<Map<String, Long>> countCards() {
+    return ResponseEntity.ok(Map.of("count", cardService.countCards()));
+  }
+
   /**
    * Specialized endpoint to search by last four digits.
    *
@@ -61,4 +86,56 @@ public class CardController {
     }
     return ResponseEntity.ok(cardService.getCards(lastFour));
   }
+
+  /**
+   * Searches several last-four values at once. Values may be repeated
+   * ({@code last4=1234&last4=5678}) or comma separated ({@code last4=1234,5678}).
+   *
+   * @param lastFours mandatory four-digit filters
+   * @return matching cards grouped by value, in request order, even when only one value is given
+   */
+  @GetMapping("/search/batch")
+  public ResponseEntity<Map<String, List<CardResponse>>> searchByLastFours(
+      @RequestParam(value = "last4", required = false) List<String> lastFours) {
+    List<String> values =
+        lastFours == null ? List.of() : lastFours.stream().filter(v -> !v.isBlank()).toList();
+    if (values.isEmpty()) {
+      return ResponseEntity.badRequest().body(Map.of());
+    }
+    return ResponseEntity.ok(cardService.searchByLastFours(values));
+  }
+
+  /**
+   * Fetches several cards by id in one round trip.
+   *
+   * @param request ids of the cards to fetch, up to {@code card.lookup.max-ids}
+   * @return masked cards in request order; unknown ids are omitted
+   */
+  @PostMapping("/lookup")
+  public ResponseEntity<List<CardResponse>> lookupCards(
+      @Valid @RequestBody CardLookupRequest request) {
+    return ResponseEntity.ok(cardService.lookupCards(request.getIds()));
+  }
+
+  /**
+   * Maps invalid card, search, lookup or paging input to 400 Bad Request.
+   *
+   * @param ex validation failure raised by the service
+   * @return error body carrying a human-readable message
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<Map<String, String>> handleInvalidInput(IllegalArgumentException ex) {
+    return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+  }
+
+  /**
+   * Maps duplicate PAN submissions to 409 Conflict.
+   *
+   * @param ex duplicate detected by the service or repository
+   * @return error body carrying a human-readable message
+   */
+  @ExceptionHandler(DuplicateCardException.class)
+  public ResponseEntity<Map<String, String>> handleDuplicateCard(DuplicateCardException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", ex.getMessage()));
+  }
 }
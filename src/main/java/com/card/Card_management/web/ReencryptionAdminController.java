@@ -0,0 +1,51 @@
+package com.card.Card_management.web;
+
+import com.card.Card_management.service.CardReencryptionJob;
+import com.card.Card_management.web.dto.ReencryptionStatusResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin operations for re-encrypting stored PANs after a key rotation.
+ */
+@RestController
+@RequestMapping("/api/admin/reencryption")
+public class ReencryptionAdminController {
+
+  private final CardReencryptionJob reencryptionJob;
+
+  public ReencryptionAdminController(CardReencryptionJob reencryptionJob) {
+    this.reencryptionJob = reencryptionJob;
+  }
+
+  /** Returns progress and throughput of the current or last run. */
+  @GetMapping
+  public ResponseEntity<ReencryptionStatusResponse> status() {
+    return ResponseEntity.ok(reencryptionJob.status());
+  }
+
+  /**
+   * Starts the job in the background, resuming from the last checkpoint.
+   *
+   * @param restart ignore the stored checkpoint and start from the first card
+   * @return 202 with the new status, or 409 if a run is already in progress
+   */
+  @PostMapping("/start")
+  public ResponseEntity<ReencryptionStatusResponse> start(
+      @RequestParam(value = "restart", defaultValue = "false") boolean restart) {
+    HttpStatus status = reencryptionJob.start(restart) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+    return ResponseEntity.status(status).body(reencryptionJob.status());
+  }
+
+  /** Stops the running job once its current page has been committed. */
+  @PostMapping("/stop")
+  public ResponseEntity<ReencryptionStatusResponse> stop() {
+    reencryptionJob.stop();
+    return ResponseEntity.accepted().body(reencryptionJob.status());
+  }
+}
@@ -0,0 +1,48 @@
+package com.card.Card_management.web;
+
+import com.card.Card_management.service.CardShardMigrationJob;
+import com.card.Card_management.web.dto.ShardMigrationStatusResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin operations for moving card documents after the Firestore shard count changes.
+ */
+@RestController
+@RequestMapping("/api/admin/shards")
+public class ShardMigrationAdminController {
+
+  private final CardShardMigrationJob migrationJob;
+
+  public ShardMigrationAdminController(CardShardMigrationJob migrationJob) {
+    this.migrationJob = migrationJob;
+  }
+
+  /** Returns progress of the current or last migration pass. */
+  @GetMapping
+  public ResponseEntity<ShardMigrationStatusResponse> status() {
+    return ResponseEntity.ok(migrationJob.status());
+  }
+
+  /**
+   * Starts a migration pass in the background.
+   *
+   * @return 202 with the new status, or 409 if a pass is running or Firestore is not configured
+   */
+  @PostMapping("/migrate")
+  public ResponseEntity<ShardMigrationStatusResponse> migrate() {
+    HttpStatus status = migrationJob.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+    return ResponseEntity.status(status).body(migrationJob.status());
+  }
+
+  /** Stops the running pass after its current page. */
+  @PostMapping("/stop")
+  public ResponseEntity<ShardMigrationStatusResponse> stop() {
+    migrationJob.stop();
+    return ResponseEntity.accepted().body(migrationJob.status());
+  }
+}
@@ -0,0 +1,24 @@
+package com.card.Card_management.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Request payload listing the ids of cards to fetch in one call.
+ */
+public class CardLookupRequest {
+
+  @NotEmpty(message = "At least one card id is required")
+  private List<String> ids;
+
+  /** Empty request for data binding. */
+  public CardLookupRequest() {}
+
+  public List<String> getIds() {
+    return ids;
+  }
+
+  public void setIds(List<String> ids) {
+    this.ids = ids;
+  }
+}
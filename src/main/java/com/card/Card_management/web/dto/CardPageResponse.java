@@ -0,0 +1,32 @@
+package com.card.Card_management.web.dto;
+
+import java.util.List;
+
+/**
+ * One page of cards ordered by id, with the token for the next page.
+ */
+public class CardPageResponse {
+
+  private final List<CardResponse> content;
+  private final String nextPageToken;
+
+  /**
+   * Creates a page.
+   *
+   * @param content masked cards on this page
+   * @param nextPageToken value to pass as {@code after} for the next page, or {@code null} when
+   *     this is the last page
+   */
+  public CardPageResponse(List<CardResponse> content, String nextPageToken) {
+    this.content = content;
+    this.nextPageToken = nextPageToken;
+  }
+
+  public List<CardResponse> getContent() {
+    return content;
+  }
+
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+}
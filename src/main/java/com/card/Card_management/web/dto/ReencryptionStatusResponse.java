@@ -0,0 +1,90 @@
+package com.card.Card_management.web.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress snapshot of the PAN re-encryption job.
+ */
+public class ReencryptionStatusResponse {
+
+  private final String state;
+  private final long processed;
+  private final long failed;
+  private final long pages;
+  private final String lastProcessedId;
+  private final Instant startedAt;
+  private final Instant finishedAt;
+  private final double recordsPerSecond;
+  private final String lastError;
+
+  /**
+   * Creates a status snapshot.
+   *
+   * @param state job state ({@code IDLE}, {@code RUNNING}, {@code STOPPING}, {@code STOPPED},
+   *     {@code COMPLETED}, {@code COMPLETED_WITH_ERRORS} or {@code FAILED})
+   * @param processed cards re-encrypted so far, including earlier resumed runs
+   * @param failed cards that could not be re-encrypted and are retried by the next run
+   * @param pages pages committed during the current run
+   * @param lastProcessedId id of the last committed card
+   * @param startedAt time the current run started
+   * @param finishedAt time the current run ended, if it has
+   * @param recordsPerSecond throughput of the current run
+   * @param lastError message of the error that failed the run, if any
+   */
+  public ReencryptionStatusResponse(
+      String state,
+      long processed,
+      long failed,
+      long pages,
+      String lastProcessedId,
+      Instant startedAt,
+      Instant finishedAt,
+      double recordsPerSecond,
+      String lastError) {
+    this.state = state;
+    this.processed = processed;
+    this.failed = failed;
+    this.pages = pages;
+    this.lastProcessedId = lastProcessedId;
+    this.startedAt = startedAt;
+    this.finishedAt = finishedAt;
+    this.recordsPerSecond = recordsPerSecond;
+    this.lastError = lastError;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public long getProcessed() {
+    return processed;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public long getPages() {
+    return pages;
+  }
+
+  public String getLastProcessedId() {
+    return lastProcessedId;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public double getRecordsPerSecond() {
+    return recordsPerSecond;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+}
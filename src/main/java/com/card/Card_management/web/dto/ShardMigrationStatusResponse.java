@@ -0,0 +1,54 @@
+package com.card.Card_management.web.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress snapshot of the card shard migration.
+ */
+public class ShardMigrationStatusResponse {
+
+  private final String state;
+  private final long moved;
+  private final Instant startedAt;
+  private final Instant finishedAt;
+  private final String lastError;
+
+  /**
+   * Creates a status snapshot.
+   *
+   * @param state migration state ({@code IDLE}, {@code RUNNING}, {@code STOPPING}, {@code
+   *     STOPPED}, {@code COMPLETED}, {@code FAILED} or {@code UNAVAILABLE} without Firestore)
+   * @param moved cards moved to their target location during the current run
+   * @param startedAt time the current run started
+   * @param finishedAt time the current run ended, if it has
+   * @param lastError message of the error that failed the run, if any
+   */
+  public ShardMigrationStatusResponse(
+      String state, long moved, Instant startedAt, Instant finishedAt, String lastError) {
+    this.state = state;
+    this.moved = moved;
+    this.startedAt = startedAt;
+    this.finishedAt = finishedAt;
+    this.lastError = lastError;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public long getMoved() {
+    return moved;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+}
@@ -27,9 +27,9 @@ const CardApi = {
     return CardApi._readJson(response);
   },
 
-  async listCards({ last4 } = {}) {
+  async listCards({ last4, signal } = {}) {
     const query = last4 ? `?last4=${encodeURIComponent(last4)}` : "";
-    const response = await fetch(`/api/cards${query}`);
+    const response = await fetch(`/api/cards${query}`, { signal });
 
     if (!response.ok) {
       const message = await CardApi._readError(response);
@@ -39,6 +39,33 @@ const CardApi = {
     return CardApi._readJson(response);
   },
 
+  // One page of cards ordered by id; pass the previous page's nextPageToken as `after`.
+  async listCardPage({ after, size, signal } = {}) {
+    const params = new URLSearchParams();
+    if (after) params.set("after", after);
+    if (size) params.set("size", String(size));
+    const response = await fetch(`/api/cards/page?${params}`, { signal });
+
+    if (!response.ok) {
+      const message = await CardApi._readError(response);
+      throw new Error(message);
+    }
+
+    return CardApi._readJson(response);
+  },
+
+  async countCards({ signal } = {}) {
+    const response = await fetch("/api/cards/count", { signal });
+
+    if (!response.ok) {
+      const message = await CardApi._readError(response);
+      throw new Error(message);
+    }
+
+    const payload = await CardApi._readJson(response);
+    return payload && typeof payload.count === "number" ? payload.count : 0;
+  },
+
   async _readJson(response) {
     const text = await response.text();
     if (!text) {
@@ -65,6 +92,10 @@ const CardApi = {
       return text;
     }
   },
+
+  isAbort(error) {
+    return error && error.name === "AbortError";
+  },
 };
 
 const CardUi = {
@@ -115,7 +146,152 @@ const CardUi = {
     return date.toLocaleString();
   },
 
+  // Builds the table row for one card. Text is assigned rather than parsed as HTML.
+  createCardRow(card) {
+    const row = document.createElement("tr");
+    row.className = "card-row";
+    row.innerHTML = `
+      <td>
+        <div class="record-meta">
+          <div class="record-icon">${CardIcons.creditCard}</div>
+          <div class="record-text">
+            <div class="record-name"></div>
+            <div class="muted"></div>
+          </div>
+        </div>
+      </td>
+      <td></td>
+      <td></td>
+    `;
+    const cells = row.children;
+    row.querySelector(".record-name").textContent =
+      card.cardholderName || "Unknown";
+    row.querySelector(".muted").textContent = card.referenceId
+      ? `Ref: ${card.referenceId}`
+      : "";
+    cells[1].textContent = CardUi.formatMaskedPan(card);
+    cells[2].textContent = CardUi.formatTimestamp(
+      card.createdAt || card.createdTime || card.createdDate
+    );
+    return row;
+  },
+
+  /**
+   * Virtualized table body: only the rows inside the scroll container's viewport, plus a few
+   * rows of overscan, exist in the DOM. Two spacer rows stand in for the rest so the scrollbar
+   * reflects the full list. Every row must be `rowHeight` pixels tall (see `.card-row`).
+   */
+  createVirtualTable({
+    container,
+    body,
+    columns = 3,
+    rowHeight = 72,
+    overscan = 6,
+    renderRow,
+    onNearEnd,
+  }) {
+    let rows = [];
+    let emptyMessage = "";
+    let renderedRange = null;
+    let frame = 0;
+
+    function spacer(height) {
+      const row = document.createElement("tr");
+      row.className = "virtual-spacer";
+      row.setAttribute("aria-hidden", "true");
+      const cell = document.createElement("td");
+      cell.colSpan = columns;
+      cell.style.height = `${height}px`;
+      row.appendChild(cell);
+      return row;
+    }
+
+    function renderEmpty() {
+      const row = document.createElement("tr");
+      const cell = document.createElement("td");
+      cell.colSpan = columns;
+      cell.className = "table-empty";
+      cell.textContent = emptyMessage;
+      row.appendChild(cell);
+      body.replaceChildren(row);
+      renderedRange = null;
+    }
+
+    function render(force) {
+      frame = 0;
+      if (rows.length === 0) {
+        renderEmpty();
+        return;
+      }
+
+      // A hidden container reports zero height; render one screenful until it is shown.
+      const viewportHeight = container.clientHeight || rowHeight * 10;
+      const scrollTop = container.scrollTop;
+      const first = Math.max(0, Math.floor(scrollTop / rowHeight) - overscan);
+      const last = Math.min(
+        rows.length,
+        Math.ceil((scrollTop + viewportHeight) / rowHeight) + overscan
+      );
+
+      const unchanged =
+        renderedRange &&
+        renderedRange.first === first &&
+        renderedRange.last === last &&
+        renderedRange.total === rows.length;
+      if (force || !unchanged) {
+        const fragment = document.createDocumentFragment();
+        fragment.appendChild(spacer(first * rowHeight));
+        for (let index = first; index < last; index += 1) {
+          fragment.appendChild(renderRow(rows[index]));
+        }
+        fragment.appendChild(spacer((rows.length - last) * rowHeight));
+        body.replaceChildren(fragment);
+        renderedRange = { first, last, total: rows.length };
+      }
+
+      if (onNearEnd && rows.length - last <= overscan) {
+        onNearEnd();
+      }
+    }
+
+    function scheduleRender() {
+      if (!frame) {
+        frame = requestAnimationFrame(() => render(false));
+      }
+    }
+
+    container.addEventListener("scroll", scheduleRender, { passive: true });
+    window.addEventListener("resize", scheduleRender);
+
+    return {
+      setRows(nextRows, message = "") {
+        rows = nextRows.slice();
+        emptyMessage = message;
+        container.scrollTop = 0;
+        render(true);
+      },
+
+      appendRows(moreRows) {
+        for (const row of moreRows) {
+          rows.push(row);
+        }
+        render(true);
+      },
+
+      refresh() {
+        render(true);
+      },
+
+      get size() {
+        return rows.length;
+      },
+    };
+  },
+
   initDashboard() {
+    const PAGE_SIZE = 100;
+    const SEARCH_DEBOUNCE_MS = 300;
+
     const totalCardsEl = document.getElementById("totalCards");
     const quickActionButtons = document.querySelectorAll(
       ".quick-action[data-panel]"
@@ -133,18 +309,39 @@ const CardUi = {
     const searchForm = document.getElementById("searchForm");
     const last4Input = document.getElementById("last4");
     const searchMessage = document.getElementById("searchMessage");
+    const resultsScroll = document.getElementById("resultsScroll");
     const resultsBody = document.getElementById("resultsBody");
     const recordsCountEl = document.getElementById("recordsCount");
     const resultsSubtitleEl = document.getElementById("resultsSubtitle");
 
     const state = {
-      totalCards: 0,
+      totalCards: null,
+      // "browse" pages through every card; "search" shows the matches for lastSearch.
+      mode: "browse",
       lastSearch: null,
-      lastResults: [],
-      lastLabel: "Use the search form to load card records.",
-      resultsInitialized: false,
+      nextPageToken: null,
+      pageLoading: false,
+      endReached: false,
+      browseStale: true,
+      // Aborting the controller cancels whichever list request is in flight.
+      requestController: null,
+      searchTimer: 0,
     };
 
+    const table =
+      resultsScroll && resultsBody
+        ? CardUi.createVirtualTable({
+            container: resultsScroll,
+            body: resultsBody,
+            renderRow: CardUi.createCardRow,
+            onNearEnd: () => {
+              if (state.mode === "browse") {
+                loadNextPage();
+              }
+            },
+          })
+        : null;
+
     function normalizeCardsResponse(payload) {
       if (!payload) return [];
       if (Array.isArray(payload)) return payload;
@@ -158,64 +355,106 @@ const CardUi = {
       }
     }
 
-    function renderResults(cards, filterLabel) {
-      if (!resultsBody) {
-        return;
-      }
+    function recordsLabel(count) {
+      return `${count} ${count === 1 ? "Record" : "Records"}`;
+    }
 
-      state.resultsInitialized = true;
-      resultsBody.innerHTML = "";
-
-      if (!cards || cards.length === 0) {
-        resultsBody.innerHTML = `
-          <tr>
-            <td colspan="3" class="table-empty">
-              No matching cards were found.
-            </td>
-          </tr>
-        `;
-        if (recordsCountEl) {
-          recordsCountEl.textContent = "0 Records";
-        }
-        if (resultsSubtitleEl) {
-          resultsSubtitleEl.textContent =
-            filterLabel || "No cards match the search.";
-        }
-        return;
+    function updateBrowseSummary() {
+      if (!table) return;
+      const loaded = table.size;
+      if (recordsCountEl) {
+        recordsCountEl.textContent =
+          state.endReached || state.totalCards === null
+            ? recordsLabel(loaded)
+            : `${loaded} of ${recordsLabel(state.totalCards)}`;
       }
+      if (resultsSubtitleEl) {
+        resultsSubtitleEl.textContent = state.endReached
+          ? `Showing all ${loaded} cards`
+          : "Showing all cards; scroll to load more";
+      }
+    }
 
-      cards.forEach((card) => {
-        const row = document.createElement("tr");
-        row.innerHTML = `
-          <td>
-            <div class="record-meta">
-              <div class="record-icon">${CardIcons.creditCard}</div>
-              <div>
-                <div style="font-weight:600;">
-                  ${card.cardholderName || "Unknown"}
-                </div>
-                <div class="muted">${
-                  card.referenceId ? `Ref: ${card.referenceId}` : ""
-                }</div>
-              </div>
-            </div>
-          </td>
-          <td>${CardUi.formatMaskedPan(card)}</td>
-          <td>${CardUi.formatTimestamp(
-            card.createdAt || card.createdTime || card.createdDate
-          )}</td>
-        `;
-        resultsBody.appendChild(row);
-      });
-
+    function showSearchResults(cards, label) {
+      if (!table) return;
+      table.setRows(cards, label);
       if (recordsCountEl) {
-        recordsCountEl.textContent = `${cards.length} ${
-          cards.length === 1 ? "Record" : "Records"
-        }`;
+        recordsCountEl.textContent = recordsLabel(cards.length);
       }
       if (resultsSubtitleEl) {
-        resultsSubtitleEl.textContent =
-          filterLabel || `Showing ${cards.length} cards`;
+        resultsSubtitleEl.textContent = label;
+      }
+    }
+
+    // Cancels the in-flight list request, if any, and returns the signal for the next one.
+    function startRequest() {
+      if (state.requestController) {
+        state.requestController.abort();
+      }
+      state.requestController = new AbortController();
+      state.pageLoading = false;
+      return state.requestController;
+    }
+
+    function finishRequest(controller) {
+      if (state.requestController === controller) {
+        state.requestController = null;
+      }
+    }
+
+    function startBrowsing() {
+      clearTimeout(state.searchTimer);
+      startRequest();
+      state.mode = "browse";
+      state.lastSearch = null;
+      state.nextPageToken = null;
+      state.endReached = false;
+      state.browseStale = false;
+      if (table) {
+        table.setRows([], "Loading cards…");
+      }
+      loadNextPage();
+    }
+
+    async function loadNextPage() {
+      if (
+        !table ||
+        state.mode !== "browse" ||
+        state.pageLoading ||
+        state.endReached
+      ) {
+        return;
+      }
+      const controller = startRequest();
+      state.pageLoading = true;
+
+      try {
+        const page = await CardApi.listCardPage({
+          after: state.nextPageToken,
+          size: PAGE_SIZE,
+          signal: controller.signal,
+        });
+        const cards = normalizeCardsResponse(page);
+        state.nextPageToken = page ? page.nextPageToken : null;
+        state.endReached = !state.nextPageToken;
+        state.pageLoading = false;
+        finishRequest(controller);
+
+        if (table.size === 0 && cards.length === 0) {
+          table.setRows([], "No cards have been added yet.");
+        } else {
+          table.appendRows(cards);
+        }
+        updateBrowseSummary();
+      } catch (error) {
+        finishRequest(controller);
+        if (CardApi.isAbort(error)) return;
+        state.pageLoading = false;
+        CardUi.showMessage(
+          searchMessage,
+          error.message || "Unable to load card data.",
+          "error"
+        );
       }
     }
 
@@ -239,8 +478,13 @@ const CardUi = {
         }
       });
 
-      if (panelKey === "search" && state.resultsInitialized) {
-        renderResults(state.lastResults, state.lastLabel);
+      if (panelKey === "search") {
+        if (state.mode === "browse" && state.browseStale) {
+          startBrowsing();
+        } else if (table) {
+          // The viewport had no height while hidden; render for the real one.
+          table.refresh();
+        }
       }
 
       if (panelKey === "search") {
@@ -252,13 +496,10 @@ const CardUi = {
 
     async function refreshTotals() {
       try {
-        const payload = await CardApi.listCards();
-        const allCards = normalizeCardsResponse(payload);
-        state.totalCards = allCards.length;
+        state.totalCards = await CardApi.countCards();
         setTotals(state.totalCards);
-
-        if (state.lastSearch) {
-          await executeSearch(state.lastSearch, { silent: true });
+        if (state.mode === "browse") {
+          updateBrowseSummary();
         }
       } catch (error) {
         if (totalCardsEl) {
@@ -283,6 +524,7 @@ const CardUi = {
     }
 
     async function executeSearch(lastFour, options = {}) {
+      clearTimeout(state.searchTimer);
       const trimmed = (lastFour || "").trim();
       if (trimmed.length !== 4 || /\D/.test(trimmed)) {
         if (!options.silent) {
@@ -295,25 +537,56 @@ const CardUi = {
         return;
       }
 
+      const controller = startRequest();
+      state.mode = "search";
+      state.lastSearch = trimmed;
+      state.browseStale = true;
+
       try {
-        const payload = await CardApi.listCards({ last4: trimmed });
+        const payload = await CardApi.listCards({
+          last4: trimmed,
+          signal: controller.signal,
+        });
+        finishRequest(controller);
         const cards = normalizeCardsResponse(payload);
-        state.lastSearch = trimmed;
-        state.lastResults = cards;
-        state.lastLabel = cards.length
-          ? `Filtered by last 4 digits = ${trimmed}`
-          : `No cards match "${trimmed}"`;
-        renderResults(cards, state.lastLabel);
+        showSearchResults(
+          cards,
+          cards.length
+            ? `Filtered by last 4 digits = ${trimmed}`
+            : `No cards match "${trimmed}"`
+        );
         if (!options.silent) {
           CardUi.clearMessage(searchMessage);
         }
       } catch (error) {
+        finishRequest(controller);
+        if (CardApi.isAbort(error)) return;
         if (!options.silent) {
           CardUi.showMessage(searchMessage, error.message, "error");
         }
       }
     }
 
+    // Searches as the user types: waits for a pause, and a newer search cancels an older one.
+    function scheduleSearch() {
+      clearTimeout(state.searchTimer);
+      const digits = toDigits(last4Input?.value || "");
+      CardUi.clearMessage(searchMessage);
+
+      if (digits.length === 0) {
+        if (state.mode === "search") {
+          state.searchTimer = setTimeout(startBrowsing, SEARCH_DEBOUNCE_MS);
+        }
+        return;
+      }
+      if (digits.length === 4) {
+        state.searchTimer = setTimeout(
+          () => executeSearch(digits),
+          SEARCH_DEBOUNCE_MS
+        );
+      }
+    }
+
     if (addForm) {
       if (panInput) {
         const enforcePanFormatting = () => {
@@ -367,9 +640,17 @@ const CardUi = {
           );
           addForm.reset();
           if (cardholderInput) cardholderInput.focus();
-          state.totalCards += 1;
-          setTotals(state.totalCards);
+          if (state.totalCards !== null) {
+            state.totalCards += 1;
+            setTotals(state.totalCards);
+          }
           refreshTotals();
+          if (state.mode === "search" && state.lastSearch) {
+            executeSearch(state.lastSearch, { silent: true });
+          } else {
+            // Reload the card list the next time it is shown.
+            state.browseStale = true;
+          }
         } catch (error) {
           CardUi.showMessage(addMessage, error.message, "error");
         }
@@ -384,6 +665,10 @@ const CardUi = {
       });
     }
 
+    if (last4Input) {
+      last4Input.addEventListener("input", scheduleSearch);
+    }
+
     quickActionButtons.forEach((button) => {
       button.addEventListener("click", () => {
         const panelKey = button.dataset.panel;
@@ -8,13 +8,18 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.card.Card_management.repository.DuplicateCardException;
 import com.card.Card_management.service.CardService;
 import com.card.Card_management.web.CardController;
+import com.card.Card_management.web.dto.CardLookupRequest;
+import com.card.Card_management.web.dto.CardPageResponse;
 import com.card.Card_management.web.dto.CardResponse;
 import com.card.Card_management.web.dto.CreateCardRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -57,6 +62,24 @@ class CardControllerTest {
     verify(cardService).createCard(any(CreateCardRequest.class));
   }
 
+  @Test
+  void createCard_duplicatePan_returnsConflict() throws Exception {
+    CreateCardRequest request = new CreateCardRequest();
+    request.setCardholderName("Jane Doe");
+    request.setPan("1234567812345678");
+
+    given(cardService.createCard(any(CreateCardRequest.class)))
+        .willThrow(new DuplicateCardException("A card with this PAN already exists"));
+
+    mockMvc
+        .perform(
+            post("/api/cards")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value("A card with this PAN already exists"));
+  }
+
   @Test
   void searchByLastFour_returnsResults() throws Exception {
     List<CardResponse> responses =
@@ -76,4 +99,96 @@ class CardControllerTest {
 
     verify(cardService).getCards("4321");
   }
+
+  @Test
+  void lookupCards_returnsCardsForIds() throws Exception {
+    CardLookupRequest request = new CardLookupRequest();
+    request.setIds(List.of("b", "a"));
+    given(cardService.lookupCards(List.of("b", "a")))
+        .willReturn(
+            List.of(
+                new CardResponse("b", "Bea", "**** **** **** 2222", Instant.EPOCH),
+                new CardResponse("a", "Al", "**** **** **** 1111", Instant.EPOCH)));
+
+    mockMvc
+        .perform(
+            post("/api/cards/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value("b"))
+        .andExpect(jsonPath("$[1].id").value("a"));
+  }
+
+  @Test
+  void lookupCards_tooManyIds_returnsBadRequest() throws Exception {
+    CardLookupRequest request = new CardLookupRequest();
+    request.setIds(List.of("a", "b", "c"));
+    given(cardService.lookupCards(List.of("a", "b", "c")))
+        .willThrow(new IllegalArgumentException("At most 2 card ids can be looked up at once"));
+
+    mockMvc
+        .perform(
+            post("/api/cards/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("At most 2 card ids can be looked up at once"));
+  }
+
+  @Test
+  void searchByLastFours_groupsResultsBySuffix() throws Exception {
+    Map<String, List<CardResponse>> grouped = new LinkedHashMap<>();
+    grouped.put(
+        "4321",
+        List.of(new CardResponse("def", "John Smith", "**** **** **** 4321", Instant.EPOCH)));
+    grouped.put("8765", List.of());
+    given(cardService.searchByLastFours(List.of("4321", "8765"))).willReturn(grouped);
+
+    mockMvc
+        .perform(get("/api/cards/search/batch").param("last4", "4321", "8765"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.4321[0].id").value("def"))
+        .andExpect(jsonPath("$.8765").isEmpty());
+  }
+
+  @Test
+  void searchByLastFours_singleValue_stillReturnsGroupedResults() throws Exception {
+    given(cardService.searchByLastFours(List.of("4321")))
+        .willReturn(
+            Map.of(
+                "4321",
+                List.of(
+                    new CardResponse("def", "John Smith", "**** **** **** 4321", Instant.EPOCH))));
+
+    mockMvc
+        .perform(get("/api/cards/search/batch").param("last4", "4321"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.4321[0].id").value("def"));
+  }
+
+  @Test
+  void getCardPage_returnsContentAndNextPageToken() throws Exception {
+    given(cardService.getCardPage("abc", 1))
+        .willReturn(
+            new CardPageResponse(
+                List.of(new CardResponse("def", "Bea", "**** **** **** 2222", Instant.EPOCH)),
+                "def"));
+
+    mockMvc
+        .perform(get("/api/cards/page").param("after", "abc").param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value("def"))
+        .andExpect(jsonPath("$.nextPageToken").value("def"));
+  }
+
+  @Test
+  void countCards_returnsCount() throws Exception {
+    given(cardService.countCards()).willReturn(42L);
+
+    mockMvc
+        .perform(get("/api/cards/count"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.count").value(42));
+  }
 }
@@ -0,0 +1,205 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.model.ReencryptionCheckpoint;
+import com.card.Card_management.repository.InMemoryReencryptionCheckpointStore;
+import com.card.Card_management.repository.ReencryptionCheckpointStore;
+import com.card.Card_management.repository.local.LocalLogCardRepository;
+import com.card.Card_management.service.CardEncryptionService;
+import com.card.Card_management.service.CardReencryptionJob;
+import com.card.Card_management.web.dto.ReencryptionStatusResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Runs the re-encryption job against the local store, with an encryption service that prefixes
+ * ciphertexts with {@code new:} instead of calling a key.
+ */
+class CardReencryptionJobTest {
+
+  @TempDir Path directory;
+
+  private final ReencryptionCheckpointStore checkpointStore =
+      new InMemoryReencryptionCheckpointStore();
+  private final CardEncryptionService encryptionService = mock(CardEncryptionService.class);
+  private LocalLogCardRepository repository;
+  private List<String> ids;
+
+  @BeforeEach
+  void setUp() {
+    repository =
+        new LocalLogCardRepository(directory.toString(), DataSize.ofMegabytes(1), 16, 1000);
+    ids =
+        IntStream.range(0, 6)
+            .mapToObj(i -> repository.save(card("Holder " + i)).getId())
+            .sorted()
+            .collect(Collectors.toList());
+    willAnswer(call -> rotate(call.getArgument(0))).given(encryptionService).reencryptPan(any());
+  }
+
+  @AfterEach
+  void tearDown() {
+    repository.close();
+  }
+
+  @Test
+  void resumesAfterTheStoredCheckpoint() throws InterruptedException {
+    checkpointStore.save(
+        new ReencryptionCheckpoint(ids.get(2), 3, List.of(), Instant.now(), Instant.now(), false));
+    CardReencryptionJob job = job(2);
+
+    assertThat(job.start(false)).isTrue();
+    ReencryptionStatusResponse status = awaitFinished(job);
+
+    assertThat(status.getState()).isEqualTo("COMPLETED");
+    assertThat(status.getProcessed()).isEqualTo(6);
+    assertThat(rotatedIds()).containsExactlyInAnyOrderElementsOf(ids.subList(3, 6));
+    assertThat(checkpointStore.load().orElseThrow().isCompleted()).isTrue();
+  }
+
+  @Test
+  void stopTakesEffectOnceTheCurrentPageIsCommitted() throws InterruptedException {
+    CardReencryptionJob job = job(2);
+    AtomicBoolean stopped = new AtomicBoolean();
+    willAnswer(
+            call -> {
+              if (stopped.compareAndSet(false, true)) {
+                job.stop();
+              }
+              return rotate(call.getArgument(0));
+            })
+        .given(encryptionService)
+        .reencryptPan(any());
+
+    job.start(false);
+    ReencryptionStatusResponse status = awaitFinished(job);
+
+    assertThat(status.getState()).isEqualTo("STOPPED");
+    assertThat(rotatedIds()).containsExactlyInAnyOrderElementsOf(ids.subList(0, 2));
+    assertThat(checkpointStore.load())
+        .hasValueSatisfying(c -> assertThat(c.getLastProcessedId()).isEqualTo(ids.get(1)));
+
+    job.start(false);
+    assertThat(awaitFinished(job).getState()).isEqualTo("COMPLETED");
+    assertThat(rotatedIds()).containsExactlyInAnyOrderElementsOf(ids);
+  }
+
+  @Test
+  void failedCardsAreCheckpointedAndRetriedByTheNextRun() throws InterruptedException {
+    String failing = ids.get(3);
+    AtomicBoolean keyAvailable = new AtomicBoolean();
+    willAnswer(
+            call -> {
+              byte[] ciphertext = call.getArgument(0);
+              if (!keyAvailable.get() && text(ciphertext).equals(nameOf(failing))) {
+                throw new IllegalStateException("key unavailable");
+              }
+              return rotate(ciphertext);
+            })
+        .given(encryptionService)
+        .reencryptPan(any());
+    CardReencryptionJob job = job(2);
+
+    job.start(false);
+    ReencryptionStatusResponse status = awaitFinished(job);
+
+    assertThat(status.getState()).isEqualTo("COMPLETED_WITH_ERRORS");
+    assertThat(status.getFailed()).isEqualTo(1);
+    assertThat(rotatedIds()).hasSize(5).doesNotContain(failing);
+    ReencryptionCheckpoint checkpoint = checkpointStore.load().orElseThrow();
+    assertThat(checkpoint.isCompleted()).isFalse();
+    assertThat(checkpoint.getFailedIds()).containsExactly(failing);
+
+    keyAvailable.set(true);
+    job.start(false);
+    status = awaitFinished(job);
+
+    assertThat(status.getState()).isEqualTo("COMPLETED");
+    assertThat(status.getFailed()).isZero();
+    assertThat(rotatedIds()).containsExactlyInAnyOrderElementsOf(ids);
+    assertThat(checkpointStore.load().orElseThrow().isCompleted()).isTrue();
+  }
+
+  @Test
+  void runFailsOnceTooManyCardsAreFailing() throws InterruptedException {
+    willThrow(new IllegalStateException("key unavailable"))
+        .given(encryptionService)
+        .reencryptPan(any());
+    CardReencryptionJob job =
+        new CardReencryptionJob(repository, encryptionService, provider(), 2, 2, 1);
+
+    job.start(false);
+    ReencryptionStatusResponse status = awaitFinished(job);
+
+    assertThat(status.getState()).isEqualTo("FAILED");
+    assertThat(status.getLastError()).contains("failed to re-encrypt");
+    assertThat(checkpointStore.load()).isEmpty();
+    assertThat(rotatedIds()).isEmpty();
+  }
+
+  private CardReencryptionJob job(int pageSize) {
+    return new CardReencryptionJob(repository, encryptionService, provider(), pageSize, 2, 100);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ObjectProvider<ReencryptionCheckpointStore> provider() {
+    ObjectProvider<ReencryptionCheckpointStore> provider = mock(ObjectProvider.class);
+    given(provider.getIfAvailable(any())).willReturn(checkpointStore);
+    return provider;
+  }
+
+  private static ReencryptionStatusResponse awaitFinished(CardReencryptionJob job)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    ReencryptionStatusResponse status = job.status();
+    while (Set.of("RUNNING", "STOPPING").contains(status.getState())) {
+      assertThat(System.nanoTime()).as("job finished in time").isLessThan(deadline);
+      Thread.sleep(10);
+      status = job.status();
+    }
+    return status;
+  }
+
+  private Set<String> rotatedIds() {
+    return repository.findAll().stream()
+        .filter(record -> text(record.getPanCiphertextBytes()).startsWith("new:"))
+        .map(CardRecord::getId)
+        .collect(Collectors.toSet());
+  }
+
+  private String nameOf(String id) {
+    return repository.findAllById(List.of(id)).get(0).getCardholderName();
+  }
+
+  private static CardRecord card(String name) {
+    return new CardRecord(
+        null, name, name.getBytes(StandardCharsets.UTF_8), "hash", "fp-" + name, null);
+  }
+
+  private static byte[] rotate(byte[] ciphertext) {
+    return ("new:" + text(ciphertext)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String text(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
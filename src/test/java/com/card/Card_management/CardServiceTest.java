@@ -0,0 +1,182 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.service.CardEncryptionService;
+import com.card.Card_management.service.CardFingerprintService;
+import com.card.Card_management.service.CardHashService;
+import com.card.Card_management.service.CardService;
+import com.card.Card_management.service.RequestTiming;
+import com.card.Card_management.service.SearchCoalescer;
+import com.card.Card_management.web.dto.CardResponse;
+import com.card.Card_management.web.dto.CreateCardRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the card service against a mocked repository and an encryption service whose ciphertext is
+ * the PAN itself.
+ */
+class CardServiceTest {
+
+  private final CardRepository cardRepository = mock(CardRepository.class);
+  private final CardEncryptionService encryptionService = mock(CardEncryptionService.class);
+  private final CardHashService hashService = new CardHashService();
+  private CardService cardService;
+
+  @BeforeEach
+  void setUp() {
+    willAnswer(call -> bytes(call.getArgument(0))).given(encryptionService).encryptPanBytes(any());
+    willAnswer(call -> new String(call.<byte[]>getArgument(0), StandardCharsets.UTF_8))
+        .given(encryptionService)
+        .decryptPan(any());
+    cardService =
+        new CardService(
+            cardRepository,
+            encryptionService,
+            hashService,
+            mock(CardFingerprintService.class),
+            new SearchCoalescer(false, 100, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            true,
+            3,
+            3,
+            200);
+  }
+
+  @AfterEach
+  void unbindTiming() {
+    RequestTiming.finishRequest();
+  }
+
+  @Test
+  void createCard_recordsValidationAsAPhase() {
+    given(cardRepository.save(any()))
+        .willAnswer(call -> withId(call.getArgument(0), "card-1"));
+    RequestTiming timing = RequestTiming.startRequest();
+
+    assertThat(cardService.createCard(request("Jane Doe", "4000123412344321")).getMaskedPan())
+        .endsWith("4321");
+
+    assertThat(timing.phases())
+        .containsKeys(RequestTiming.VALIDATION, RequestTiming.HASH, RequestTiming.ENCRYPT);
+  }
+
+  @Test
+  void createCard_rejectsAnInvalidRequestBeforeTouchingThePan() {
+    assertThatThrownBy(() -> cardService.createCard(request(" ", "4000-1234")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Cardholder name is required; PAN must be exactly 16 digits");
+
+    verify(encryptionService, never()).encryptPanBytes(any());
+    verify(cardRepository, never()).save(any());
+  }
+
+  @Test
+  void lookupCards_deduplicatesIdsBeforeApplyingTheLimit() {
+    given(cardRepository.findAllById(any()))
+        .willReturn(List.of(card("b", "4000123412344321"), card("a", "4000123412348765")));
+
+    assertThat(cardService.lookupCards(List.of("b", "a", "b", " c ", "a")))
+        .extracting(CardResponse::getId)
+        .containsExactly("b", "a");
+
+    verify(cardRepository)
+        .findAllById(argThat(ids -> List.copyOf(ids).equals(List.of("b", "a", "c"))));
+  }
+
+  @Test
+  void lookupCards_rejectsMoreDistinctIdsThanTheLimit() {
+    assertThatThrownBy(() -> cardService.lookupCards(List.of("a", "b", "c", "d")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("At most 3 card ids can be looked up at once");
+    assertThatThrownBy(() -> cardService.lookupCards(List.of("a", " ")))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    verify(cardRepository, never()).findAllById(any());
+  }
+
+  @Test
+  void searchByLastFours_groupsResultsPerSuffixInRequestOrder() {
+    given(cardRepository.findByLastFourHashes(any()))
+        .willReturn(
+            List.of(
+                card("a", "4000123412344321"),
+                card("b", "4000123412348765"),
+                card("c", "4111111111114321")));
+
+    Map<String, List<CardResponse>> results =
+        cardService.searchByLastFours(List.of("8765", "9999", " 4321", "8765"));
+
+    assertThat(results.keySet()).containsExactly("8765", "9999", "4321");
+    assertThat(results.get("8765")).extracting(CardResponse::getId).containsExactly("b");
+    assertThat(results.get("9999")).isEmpty();
+    assertThat(results.get("4321")).extracting(CardResponse::getId).containsExactly("a", "c");
+    verify(cardRepository)
+        .findByLastFourHashes(
+            argThat(
+                hashes ->
+                    Set.copyOf(hashes)
+                        .equals(
+                            Set.of(
+                                hashService.hashLastFour("8765"),
+                                hashService.hashLastFour("9999"),
+                                hashService.hashLastFour("4321")))));
+  }
+
+  @Test
+  void searchByLastFours_rejectsInvalidOrTooManySuffixes() {
+    assertThatThrownBy(() -> cardService.searchByLastFours(List.of("1111", "2222", "3333", "4444")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("At most 3 last-four values can be searched at once");
+    assertThatThrownBy(() -> cardService.searchByLastFours(List.of("1111", "12a4")))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    verify(cardRepository, never()).findByLastFourHashes(any());
+  }
+
+  private static CreateCardRequest request(String cardholderName, String pan) {
+    CreateCardRequest request = new CreateCardRequest();
+    request.setCardholderName(cardholderName);
+    request.setPan(pan);
+    return request;
+  }
+
+  private static CardRecord withId(CardRecord record, String id) {
+    return new CardRecord(
+        id,
+        record.getCardholderName(),
+        record.getPanCiphertextBytes(),
+        record.getLastFourHash(),
+        record.getPanFingerprint(),
+        record.getCreatedAt() != null ? record.getCreatedAt() : Instant.now());
+  }
+
+  private CardRecord card(String id, String pan) {
+    String lastFourHash = hashService.hashLastFour(pan.substring(12));
+    return new CardRecord(id, "Holder " + id, bytes(pan), lastFourHash, null, Instant.now());
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,61 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.repository.CardShardLayout;
+import com.google.cloud.firestore.DocumentReference;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CardShardLayoutTest {
+
+  private final InMemoryFirestore firestore = new InMemoryFirestore();
+
+  @Test
+  void shardOfACardDependsOnlyOnItsId() {
+    CardShardLayout layout = layout(4);
+
+    // Pinned values: changing the hash would strand every card written under the old mapping.
+    assertThat(layout.document("card-1").getPath()).isEqualTo("card_shards/0/cards/card-1");
+    assertThat(layout.document("card-2").getPath()).isEqualTo("card_shards/1/cards/card-2");
+    assertThat(layout.document("AbCdEfGhIjKlMnOpQrSt").getPath())
+        .isEqualTo("card_shards/2/cards/AbCdEfGhIjKlMnOpQrSt");
+    assertThat(layout(4).document("card-3").getPath())
+        .isEqualTo(layout.document("card-3").getPath());
+    assertThat(layout(8).document("card-1").getPath()).isEqualTo("card_shards/4/cards/card-1");
+  }
+
+  @Test
+  void oneShardKeepsTheFlatCollection() {
+    CardShardLayout layout = layout(1);
+
+    assertThat(layout.isSharded()).isFalse();
+    assertThat(layout.readsLegacy()).isFalse();
+    assertThat(layout.document("card-1").getPath()).isEqualTo("cards/card-1");
+    assertThat(layout.readCollections()).hasSize(1);
+  }
+
+  @Test
+  void newCardsAreSpreadOverEveryShard() {
+    CardShardLayout layout = layout(4);
+
+    Map<String, Long> cardsPerShard =
+        IntStream.range(0, 2000)
+            .mapToObj(i -> layout.newDocument())
+            .map(DocumentReference::getPath)
+            .map(path -> path.substring(0, path.indexOf("/cards/")))
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+    assertThat(cardsPerShard)
+        .containsOnlyKeys("card_shards/0", "card_shards/1", "card_shards/2", "card_shards/3");
+    assertThat(cardsPerShard.values()).allSatisfy(count -> assertThat(count).isBetween(350L, 650L));
+    assertThat(layout.readCollections()).hasSize(5);
+  }
+
+  private CardShardLayout layout(int shards) {
+    return new CardShardLayout(firestore.firestore, shards, true);
+  }
+}
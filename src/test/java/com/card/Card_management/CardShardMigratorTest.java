@@ -0,0 +1,118 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.card.Card_management.repository.CardShardLayout;
+import com.card.Card_management.repository.CardShardMigrator;
+import com.card.Card_management.service.CardShardMigrationJob;
+import com.card.Card_management.web.dto.ShardMigrationStatusResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+class CardShardMigratorTest {
+
+  private final InMemoryFirestore firestore = new InMemoryFirestore();
+  private final CardShardLayout layout = new CardShardLayout(firestore.firestore, 4, true);
+  private final CardShardMigrator migrator = new CardShardMigrator(firestore.firestore, layout);
+  private List<String> ids;
+
+  @BeforeEach
+  void storeFlatCards() {
+    ids = IntStream.range(0, 10).mapToObj(i -> "card-" + i).collect(Collectors.toList());
+    ids.forEach(id -> firestore.put("cards/" + id, Map.of("cardholderName", "Holder " + id)));
+  }
+
+  @Test
+  void movesEveryCardIntoItsShardAndIsIdempotent() {
+    assertThat(migrator.migrate(3, () -> false, moved -> {})).isEqualTo(10);
+    assertEveryCardInItsShard();
+
+    int commits = firestore.commits.get();
+    assertThat(migrator.migrate(3, () -> false, moved -> {})).isZero();
+    assertThat(firestore.commits).hasValue(commits);
+    assertEveryCardInItsShard();
+  }
+
+  @Test
+  void stoppedPassIsCompletedByTheNextOne() {
+    AtomicInteger pages = new AtomicInteger();
+    long firstPass = migrator.migrate(3, () -> pages.get() == 1, moved -> pages.incrementAndGet());
+
+    assertThat(firstPass).isEqualTo(3);
+    assertThat(firestore.documents().keySet()).filteredOn(path -> path.startsWith("cards/"))
+        .hasSize(7);
+
+    assertThat(migrator.migrate(3, () -> false, moved -> {})).isEqualTo(7);
+    assertEveryCardInItsShard();
+  }
+
+  @Test
+  void cardWrittenDuringTheMoveIsCopiedWithItsNewData() {
+    firestore.beforeNextCommit(
+        () -> firestore.put("cards/card-4", Map.of("cardholderName", "Renamed")));
+
+    assertThat(migrator.migrate(20, () -> false, moved -> {})).isEqualTo(10);
+
+    assertEveryCardInItsShard();
+    assertThat(firestore.documents().get(layout.document("card-4").getPath()))
+        .containsEntry("cardholderName", "Renamed");
+  }
+
+  @Test
+  void jobReportsProgressAndCanBeRerun() throws InterruptedException {
+    CardShardMigrationJob job = new CardShardMigrationJob(provider(migrator), 4);
+
+    assertThat(job.start()).isTrue();
+    ShardMigrationStatusResponse status = awaitFinished(job);
+    assertThat(status.getState()).isEqualTo("COMPLETED");
+    assertThat(status.getMoved()).isEqualTo(10);
+
+    assertThat(job.start()).isTrue();
+    status = awaitFinished(job);
+    assertThat(status.getState()).isEqualTo("COMPLETED");
+    assertThat(status.getMoved()).isZero();
+    assertEveryCardInItsShard();
+  }
+
+  @Test
+  void jobIsUnavailableWithoutFirestore() {
+    CardShardMigrationJob job = new CardShardMigrationJob(provider(null), 4);
+
+    assertThat(job.start()).isFalse();
+    assertThat(job.status().getState()).isEqualTo("UNAVAILABLE");
+  }
+
+  private void assertEveryCardInItsShard() {
+    Map<String, Map<String, Object>> documents = firestore.documents();
+    assertThat(documents.keySet())
+        .containsExactlyInAnyOrderElementsOf(
+            ids.stream().map(id -> layout.document(id).getPath()).toList());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectProvider<CardShardMigrator> provider(CardShardMigrator migrator) {
+    ObjectProvider<CardShardMigrator> provider = mock(ObjectProvider.class);
+    given(provider.getIfAvailable()).willReturn(migrator);
+    return provider;
+  }
+
+  private static ShardMigrationStatusResponse awaitFinished(CardShardMigrationJob job)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    ShardMigrationStatusResponse status = job.status();
+    while (status.getState().equals("RUNNING") || status.getState().equals("STOPPING")) {
+      assertThat(System.nanoTime()).as("migration finished in time").isLessThan(deadline);
+      Thread.sleep(10);
+      status = job.status();
+    }
+    return status;
+  }
+}
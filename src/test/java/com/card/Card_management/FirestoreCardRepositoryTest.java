@@ -0,0 +1,93 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.repository.CardShardLayout;
+import com.card.Card_management.repository.FirestoreCardRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FirestoreCardRepositoryTest {
+
+  private final InMemoryFirestore firestore = new InMemoryFirestore();
+
+  @Test
+  void findAllById_readsInChunksOf100AndKeepsRequestOrder() {
+    FirestoreCardRepository repository = repository(0);
+    List<String> ids = storeCards(250);
+    Collections.shuffle(ids, new Random(7));
+    List<String> requested = new ArrayList<>(ids);
+    requested.add(2, "missing-1");
+    requested.add(ids.get(0));
+    requested.add("missing-2");
+
+    List<CardRecord> found = repository.findAllById(requested);
+
+    assertThat(found).extracting(CardRecord::getId).containsExactlyElementsOf(ids);
+    assertThat(firestore.getAllSizes).containsExactly(100, 100, 52);
+  }
+
+  @Test
+  void findAllById_fallsBackToTheFlatCollectionForUnmigratedCards() {
+    FirestoreCardRepository repository = repository(4);
+    firestore.put("cards/legacy-1", Map.of("cardholderName", "Legacy"));
+    firestore.put(layout(4).document("card-1").getPath(), Map.of("cardholderName", "Sharded"));
+
+    List<CardRecord> found = repository.findAllById(List.of("legacy-1", "card-1", "missing"));
+
+    assertThat(found)
+        .extracting(CardRecord::getCardholderName)
+        .containsExactly("Legacy", "Sharded");
+    assertThat(firestore.getAllSizes).containsExactly(3, 2);
+  }
+
+  @Test
+  void findByLastFourHashes_splitsWhereInIntoChunksOf30() {
+    FirestoreCardRepository repository = repository(0);
+    List<String> hashes = new ArrayList<>();
+    for (int i = 0; i < 70; i++) {
+      hashes.add("hash-" + i);
+      firestore.put("cards/card-" + i, card("hash-" + i));
+    }
+    firestore.put("cards/other", card("hash-other"));
+    List<String> requested = new ArrayList<>(hashes);
+    requested.addAll(hashes.subList(0, 5));
+
+    List<CardRecord> found = repository.findByLastFourHashes(requested);
+
+    assertThat(found)
+        .extracting(CardRecord::getLastFourHash)
+        .containsExactlyInAnyOrderElementsOf(hashes);
+    assertThat(firestore.whereInValues).extracting(List::size).containsExactly(30, 30, 10);
+    assertThat(firestore.whereInValues.stream().flatMap(List::stream))
+        .containsExactlyElementsOf(hashes);
+  }
+
+  private List<String> storeCards(int count) {
+    CardShardLayout layout = layout(0);
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String id = "card-" + i;
+      firestore.put(layout.document(id).getPath(), Map.of("cardholderName", "Holder " + i));
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  private static Map<String, Object> card(String lastFourHash) {
+    return Map.of("cardholderName", "Holder", "lastFourHash", lastFourHash);
+  }
+
+  private CardShardLayout layout(int shards) {
+    return new CardShardLayout(firestore.firestore, shards, true);
+  }
+
+  private FirestoreCardRepository repository(int shards) {
+    return new FirestoreCardRepository(firestore.firestore, layout(shards));
+  }
+}
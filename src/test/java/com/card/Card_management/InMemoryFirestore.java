@@ -0,0 +1,259 @@
+package com.card.Card_management;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.card.Card_management.model.CardRecord;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionGroup;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import io.grpc.Status;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mockito-backed stand-in for the parts of Firestore that the shard layout, the migrator and the
+ * card repository's reads use: document references, multi-document gets, whereIn queries, an
+ * ordered collection-group query and write batches with update-time preconditions. Documents are
+ * kept by path; card documents are read back as {@link CardRecord}s without ciphertext.
+ */
+class InMemoryFirestore {
+
+  final Firestore firestore = mock(Firestore.class);
+  final AtomicInteger commits = new AtomicInteger();
+  /** Number of documents requested by each multi-document get, in call order. */
+  final List<Integer> getAllSizes = new CopyOnWriteArrayList<>();
+  /** Values of each whereIn filter, in call order. */
+  final List<List<Object>> whereInValues = new CopyOnWriteArrayList<>();
+  private final NavigableMap<String, Map<String, Object>> documents = new TreeMap<>();
+  private final Map<String, Timestamp> updateTimes = new HashMap<>();
+  private long clock;
+  private Runnable beforeCommit = () -> {};
+
+  InMemoryFirestore() {
+    given(firestore.collection(anyString())).willAnswer(call -> collection(call.getArgument(0)));
+    CollectionGroup group = mock(CollectionGroup.class);
+    Query ordered = mock(Query.class);
+    given(firestore.collectionGroup("cards")).willReturn(group);
+    given(group.orderBy(any(FieldPath.class))).willReturn(ordered);
+    given(ordered.limit(anyInt())).willAnswer(call -> page(null, call.getArgument(0)));
+    given(firestore.batch()).willAnswer(call -> batch());
+    given(firestore.getAll(any(DocumentReference[].class)))
+        .willAnswer(call -> ApiFutures.immediateFuture(getAll(call.getArguments())));
+  }
+
+  /** Creates or overwrites the document at {@code path}, giving it a new update time. */
+  synchronized void put(String path, Map<String, Object> data) {
+    documents.put(path, new LinkedHashMap<>(data));
+    updateTimes.put(path, Timestamp.ofTimeMicroseconds(++clock));
+  }
+
+  synchronized Map<String, Map<String, Object>> documents() {
+    return new TreeMap<>(documents);
+  }
+
+  /** Runs {@code action} before the next commit is applied, as a concurrent writer would. */
+  synchronized void beforeNextCommit(Runnable action) {
+    beforeCommit = action;
+  }
+
+  private CollectionReference collection(String path) {
+    CollectionReference collection = mock(CollectionReference.class);
+    given(collection.document(anyString()))
+        .willAnswer(call -> document(path + "/" + call.getArgument(0)));
+    given(collection.document()).willAnswer(call -> document(path + "/" + UUID.randomUUID()));
+    given(collection.whereIn(anyString(), anyList()))
+        .willAnswer(call -> whereIn(path, call.getArgument(0), call.getArgument(1)));
+    return collection;
+  }
+
+  private DocumentReference document(String path) {
+    DocumentReference document = mock(DocumentReference.class);
+    given(document.getPath()).willReturn(path);
+    given(document.getId()).willReturn(path.substring(path.lastIndexOf('/') + 1));
+    given(document.collection(anyString()))
+        .willAnswer(call -> collection(path + "/" + call.getArgument(0)));
+    return document;
+  }
+
+  private synchronized List<DocumentSnapshot> getAll(Object[] arguments) {
+    List<DocumentReference> references = new ArrayList<>();
+    for (Object argument : arguments) {
+      if (argument instanceof DocumentReference[] array) {
+        references.addAll(List.of(array));
+      } else {
+        references.add((DocumentReference) argument);
+      }
+    }
+    getAllSizes.add(references.size());
+    List<DocumentSnapshot> snapshots = new ArrayList<>();
+    for (DocumentReference reference : references) {
+      DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+      Map<String, Object> data = documents.get(reference.getPath());
+      given(snapshot.getId()).willReturn(reference.getId());
+      given(snapshot.getReference()).willReturn(reference);
+      given(snapshot.exists()).willReturn(data != null);
+      if (data != null) {
+        given(snapshot.toObject(CardRecord.class)).willReturn(card(reference.getId(), data));
+      }
+      snapshots.add(snapshot);
+    }
+    return snapshots;
+  }
+
+  private Query whereIn(String collectionPath, String field, List<Object> values) {
+    whereInValues.add(List.copyOf(values));
+    Query query = mock(Query.class);
+    given(query.get())
+        .willAnswer(call -> ApiFutures.immediateFuture(matching(collectionPath, field, values)));
+    return query;
+  }
+
+  /** Documents directly in {@code collectionPath} whose {@code field} is one of {@code values}. */
+  private synchronized QuerySnapshot matching(
+      String collectionPath, String field, List<Object> values) {
+    String prefix = collectionPath + "/";
+    List<QueryDocumentSnapshot> matches = new ArrayList<>();
+    for (Map.Entry<String, Map<String, Object>> entry : documents.entrySet()) {
+      String path = entry.getKey();
+      if (!path.startsWith(prefix)
+          || path.indexOf('/', prefix.length()) >= 0
+          || !values.contains(entry.getValue().get(field))) {
+        continue;
+      }
+      String id = path.substring(prefix.length());
+      QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+      given(document.getId()).willReturn(id);
+      given(document.toObject(CardRecord.class)).willReturn(card(id, entry.getValue()));
+      matches.add(document);
+    }
+    QuerySnapshot snapshot = mock(QuerySnapshot.class);
+    given(snapshot.getDocuments()).willReturn(matches);
+    return snapshot;
+  }
+
+  private static CardRecord card(String id, Map<String, Object> data) {
+    return new CardRecord(
+        id,
+        (String) data.get("cardholderName"),
+        null,
+        (String) data.get("lastFourHash"),
+        (String) data.get("panFingerprint"),
+        null);
+  }
+
+  /** A page of the collection-group query, ordered by path like a document-id ordering. */
+  private Query page(String afterPath, int limit) {
+    Query query = mock(Query.class);
+    given(query.startAfter(any(DocumentSnapshot.class)))
+        .willAnswer(
+            call -> {
+              DocumentSnapshot cursor = call.getArgument(0);
+              return page(cursor.getReference().getPath(), limit);
+            });
+    given(query.get()).willAnswer(call -> ApiFutures.immediateFuture(snapshot(afterPath, limit)));
+    return query;
+  }
+
+  private synchronized QuerySnapshot snapshot(String afterPath, int limit) {
+    Map<String, Map<String, Object>> tail =
+        afterPath == null ? documents : documents.tailMap(afterPath, false);
+    List<QueryDocumentSnapshot> page = new ArrayList<>();
+    for (Map.Entry<String, Map<String, Object>> entry : tail.entrySet()) {
+      if (page.size() == limit) {
+        break;
+      }
+      QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+      String path = entry.getKey();
+      DocumentReference reference = document(path);
+      Map<String, Object> data = new LinkedHashMap<>(entry.getValue());
+      given(document.getId()).willReturn(path.substring(path.lastIndexOf('/') + 1));
+      given(document.getReference()).willReturn(reference);
+      given(document.getData()).willReturn(data);
+      given(document.getUpdateTime()).willReturn(updateTimes.get(path));
+      page.add(document);
+    }
+    QuerySnapshot snapshot = mock(QuerySnapshot.class);
+    given(snapshot.getDocuments()).willReturn(page);
+    return snapshot;
+  }
+
+  private WriteBatch batch() {
+    WriteBatch batch = mock(WriteBatch.class);
+    Map<String, Map<String, Object>> sets = new LinkedHashMap<>();
+    Map<String, Precondition> deletes = new LinkedHashMap<>();
+    given(batch.set(any(DocumentReference.class), anyMap()))
+        .willAnswer(
+            call -> {
+              DocumentReference document = call.getArgument(0);
+              sets.put(document.getPath(), call.getArgument(1));
+              return batch;
+            });
+    given(batch.delete(any(DocumentReference.class), any(Precondition.class)))
+        .willAnswer(
+            call -> {
+              DocumentReference document = call.getArgument(0);
+              deletes.put(document.getPath(), call.getArgument(1));
+              return batch;
+            });
+    given(batch.commit()).willAnswer(call -> commit(sets, deletes));
+    return batch;
+  }
+
+  private ApiFuture<List<WriteResult>> commit(
+      Map<String, Map<String, Object>> sets, Map<String, Precondition> deletes) {
+    Runnable action;
+    synchronized (this) {
+      action = beforeCommit;
+      beforeCommit = () -> {};
+    }
+    action.run();
+    synchronized (this) {
+      commits.incrementAndGet();
+      for (Map.Entry<String, Precondition> delete : deletes.entrySet()) {
+        Timestamp current = updateTimes.get(delete.getKey());
+        if (current == null || !Precondition.updatedAt(current).equals(delete.getValue())) {
+          return ApiFutures.immediateFailedFuture(
+              ApiExceptionFactory.createException(
+                  new IllegalStateException(delete.getKey() + " changed since it was read"),
+                  GrpcStatusCode.of(Status.Code.FAILED_PRECONDITION),
+                  false));
+        }
+      }
+      sets.forEach(this::put);
+      deletes.keySet().forEach(
+          path -> {
+            documents.remove(path);
+            updateTimes.remove(path);
+          });
+      return ApiFutures.immediateFuture(List.of());
+    }
+  }
+}
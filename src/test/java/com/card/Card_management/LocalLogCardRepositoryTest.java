@@ -0,0 +1,194 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.repository.DuplicateCardException;
+import com.card.Card_management.repository.local.LocalLogCardRepository;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Exercises the local log-structured store, including recovery after clean and unclean shutdowns.
+ */
+class LocalLogCardRepositoryTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void savedCardsAreFoundByHashAndFingerprint() {
+    LocalLogCardRepository repository = open(DataSize.ofMegabytes(1));
+    CardRecord saved = repository.save(card("Alice", "hash-1", "fp-1"));
+    repository.save(card("Bob", "hash-2", "fp-2"));
+
+    assertThat(saved.getId()).isNotBlank();
+    assertThat(repository.findByLastFourHash("hash-1"))
+        .extracting(CardRecord::getCardholderName)
+        .containsExactly("Alice");
+    assertThat(repository.existsByPanFingerprint("fp-2")).isTrue();
+    assertThat(repository.existsByPanFingerprint("fp-3")).isFalse();
+    assertThat(repository.findAll()).hasSize(2);
+    repository.close();
+  }
+
+  @Test
+  void duplicateFingerprintIsRejected() {
+    LocalLogCardRepository repository = open(DataSize.ofMegabytes(1));
+    repository.save(card("Alice", "hash-1", "fp-1"));
+
+    assertThatThrownBy(() -> repository.save(card("Mallory", "hash-9", "fp-1")))
+        .isInstanceOf(DuplicateCardException.class);
+    assertThat(repository.findAll()).hasSize(1);
+    repository.close();
+  }
+
+  @Test
+  void replacedCiphertextSurvivesRestartWithoutDuplicatingSearchResults() {
+    LocalLogCardRepository repository = open(DataSize.ofMegabytes(1));
+    CardRecord saved = repository.save(card("Alice", "hash-1", "fp-1"));
+    repository.replaceCiphertexts(Map.of(saved.getId(), bytes("rotated")));
+    repository.close();
+
+    LocalLogCardRepository reopened = open(DataSize.ofMegabytes(1));
+    List<CardRecord> matches = reopened.findByLastFourHash("hash-1");
+    assertThat(matches).hasSize(1);
+    assertThat(matches.get(0).getPanCiphertextBytes()).isEqualTo(bytes("rotated"));
+    assertThat(reopened.existsByPanFingerprint("fp-1")).isTrue();
+    reopened.close();
+  }
+
+  @Test
+  void recoversFromUncleanShutdownAndTornTail() throws IOException {
+    LocalLogCardRepository repository = open(DataSize.ofKilobytes(1));
+    for (int i = 0; i < 20; i++) {
+      repository.save(card("Holder " + i, "hash-" + (i % 3), "fp-" + i));
+    }
+    // Simulate a crash part-way through the next append: no close(), then a partial frame.
+    Path lastSegment;
+    try (Stream<Path> files = Files.list(directory)) {
+      lastSegment =
+          files.filter(file -> file.toString().endsWith(".log")).sorted().reduce((a, b) -> b).get();
+    }
+    Files.write(lastSegment, new byte[] {0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+    LocalLogCardRepository recovered = open(DataSize.ofKilobytes(1));
+    assertThat(recovered.findAll()).hasSize(20);
+    assertThat(recovered.findByLastFourHash("hash-0")).hasSize(7);
+    recovered.save(card("After crash", "hash-0", "fp-new"));
+    assertThat(recovered.findByLastFourHash("hash-0")).hasSize(8);
+    recovered.close();
+  }
+
+  @Test
+  void crashRecoveryReplaysOnlyTheLogAfterTheLastCheckpoint() throws IOException {
+    LocalLogCardRepository repository = open(DataSize.ofKilobytes(1), 5);
+    for (int i = 0; i < 22; i++) {
+      repository.save(card("Holder " + i, "hash-" + (i % 2), "fp-" + i));
+    }
+    // Crash without close(). The last checkpoint was taken after the 20th write.
+    // Break the checksum of the very first entry: replaying the full log would fail on it.
+    try (FileChannel channel =
+        FileChannel.open(directory.resolve("segment-00000001.log"), StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0x7f}), 4);
+    }
+
+    LocalLogCardRepository recovered = open(DataSize.ofKilobytes(1), 5);
+    assertThat(recovered.findAll()).hasSize(22);
+    assertThat(recovered.findByLastFourHash("hash-1")).hasSize(11);
+    assertThat(recovered.existsByPanFingerprint("fp-21")).isTrue();
+    recovered.close();
+  }
+
+  @Test
+  void concurrentSavesOfTheSamePanStoreOneCard() throws Exception {
+    LocalLogCardRepository repository = open(DataSize.ofMegabytes(1));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<CardRecord>> saves = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        String name = "Holder " + i;
+        saves.add(executor.submit(() -> repository.save(card(name, "hash-1", "fp-1"))));
+      }
+      int stored = 0;
+      for (Future<CardRecord> save : saves) {
+        try {
+          save.get();
+          stored++;
+        } catch (ExecutionException e) {
+          assertThat(e.getCause()).isInstanceOf(DuplicateCardException.class);
+        }
+      }
+      assertThat(stored).isEqualTo(1);
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(repository.findByLastFourHash("hash-1")).hasSize(1);
+    repository.close();
+  }
+
+  @Test
+  void rebuildsMissingIndexesFromTheLog() throws IOException {
+    LocalLogCardRepository repository = open(DataSize.ofMegabytes(1));
+    repository.save(card("Alice", "hash-1", "fp-1"));
+    repository.save(card("Bob", "hash-1", "fp-2"));
+    repository.close();
+    Files.delete(directory.resolve("last-four.idx"));
+
+    LocalLogCardRepository reopened = open(DataSize.ofMegabytes(1));
+    assertThat(reopened.findByLastFourHash("hash-1")).hasSize(2);
+    reopened.close();
+  }
+
+  @Test
+  void pagesAreOrderedById() {
+    LocalLogCardRepository repository = open(DataSize.ofMegabytes(1));
+    List<String> ids =
+        IntStream.range(0, 25)
+            .mapToObj(i -> repository.save(card("Holder " + i, "hash", "fp-" + i)).getId())
+            .sorted()
+            .collect(Collectors.toList());
+
+    List<CardRecord> first = repository.findPageAfter(null, 10);
+    List<CardRecord> second = repository.findPageAfter(first.get(9).getId(), 10);
+    List<CardRecord> last = repository.findPageAfter(second.get(9).getId(), 10);
+
+    assertThat(Stream.of(first, second, last).flatMap(List::stream).map(CardRecord::getId))
+        .containsExactlyElementsOf(ids);
+    repository.close();
+  }
+
+  private LocalLogCardRepository open(DataSize segmentSize) {
+    return open(segmentSize, 1000);
+  }
+
+  private LocalLogCardRepository open(DataSize segmentSize, int checkpointInterval) {
+    return new LocalLogCardRepository(directory.toString(), segmentSize, 16, checkpointInterval);
+  }
+
+  private static CardRecord card(String name, String lastFourHash, String fingerprint) {
+    return new CardRecord(null, name, bytes(name), lastFourHash, fingerprint, null);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
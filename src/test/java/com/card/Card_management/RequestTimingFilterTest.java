@@ -0,0 +1,63 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.config.RequestTimingFilter;
+import com.card.Card_management.service.RequestTiming;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestTimingFilterTest {
+
+  @Test
+  void enabledHeader_reportsRecordedPhasesAndTotal() throws Exception {
+    MockHttpServletResponse response = run(true, "/api/cards");
+
+    String header = response.getHeader("Server-Timing");
+    assertThat(header).startsWith("repo;dur=").contains("decrypt;dur=").contains("total;dur=");
+    assertThat(header).contains("desc=\"2 x, max ");
+    assertThat(response.getContentAsString()).isEqualTo("[]");
+  }
+
+  @Test
+  void disabledFeature_leavesResponseAloneAndRecordsNothing() throws Exception {
+    MockHttpServletResponse response = run(false, "/api/cards");
+
+    assertThat(response.getHeader("Server-Timing")).isNull();
+    assertThat(response.getContentAsString()).isEqualTo("[]");
+  }
+
+  @Test
+  void nonApiRequests_areNotTimed() throws Exception {
+    assertThat(run(true, "/index.html").getHeader("Server-Timing")).isNull();
+  }
+
+  private static MockHttpServletResponse run(boolean headerEnabled, String path) throws Exception {
+    RequestTimingFilter filter = new RequestTimingFilter(headerEnabled, Duration.ZERO);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(
+        new MockHttpServletRequest("GET", path), response, new MockFilterChain(new FakeApi()));
+    return response;
+  }
+
+  /** Stands in for the controller: records phases the way the service does, then writes JSON. */
+  private static final class FakeApi extends HttpServlet {
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+      RequestTiming timing = RequestTiming.current();
+      timing.record(RequestTiming.REPOSITORY, timing.mark());
+      timing.record(RequestTiming.DECRYPT, timing.mark(), "card-1");
+      timing.record(RequestTiming.DECRYPT, timing.mark(), "card-2");
+      timing.markSerializationStart();
+      response.getWriter().write("[]");
+    }
+  }
+}
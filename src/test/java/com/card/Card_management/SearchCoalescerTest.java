@@ -0,0 +1,87 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.service.SearchCoalescer;
+import com.card.Card_management.web.dto.CardResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SearchCoalescerTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SearchCoalescer coalescer =
+      new SearchCoalescer(true, 100, Duration.ofSeconds(5), meterRegistry);
+
+  @Test
+  void concurrentIdenticalSearches_shareOneLookup() throws Exception {
+    AtomicInteger lookups = new AtomicInteger();
+    CountDownLatch leaderStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<CardResponse> result =
+        List.of(new CardResponse("abc", "Jane Doe", "**** **** **** 4321", Instant.now()));
+
+    CompletableFuture<List<CardResponse>> leader =
+        CompletableFuture.supplyAsync(
+            () ->
+                coalescer.execute(
+                    "hash",
+                    () -> {
+                      lookups.incrementAndGet();
+                      leaderStarted.countDown();
+                      await(release);
+                      return result;
+                    }));
+    assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    CompletableFuture<List<CardResponse>> follower =
+        CompletableFuture.supplyAsync(
+            () ->
+                coalescer.execute(
+                    "hash",
+                    () -> {
+                      lookups.incrementAndGet();
+                      return List.of();
+                    }));
+    while (meterRegistry.counter("card.search.coalescing", "outcome", "coalesced").count() < 1) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    List<CardResponse> leaderResult = leader.get(5, TimeUnit.SECONDS);
+    List<CardResponse> followerResult = follower.get(5, TimeUnit.SECONDS);
+    assertThat(lookups).hasValue(1);
+    assertThat(followerResult).hasSize(1).isNotSameAs(leaderResult);
+    assertThat(followerResult.get(0).getId()).isEqualTo("abc");
+  }
+
+  @Test
+  void sequentialSearches_areNotCoalesced() {
+    AtomicInteger lookups = new AtomicInteger();
+
+    coalescer.execute("hash", () -> List.of(lookupOnce(lookups)));
+    coalescer.execute("hash", () -> List.of(lookupOnce(lookups)));
+
+    assertThat(lookups).hasValue(2);
+  }
+
+  private static CardResponse lookupOnce(AtomicInteger lookups) {
+    lookups.incrementAndGet();
+    return new CardResponse("id", "name", "****", Instant.now());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
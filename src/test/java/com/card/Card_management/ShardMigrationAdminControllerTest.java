@@ -0,0 +1,64 @@
+package com.card.Card_management;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.card.Card_management.service.CardShardMigrationJob;
+import com.card.Card_management.web.ShardMigrationAdminController;
+import com.card.Card_management.web.dto.ShardMigrationStatusResponse;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(ShardMigrationAdminController.class)
+class ShardMigrationAdminControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private CardShardMigrationJob migrationJob;
+
+  @Test
+  void migrate_startsAPassAndReturnsAccepted() throws Exception {
+    given(migrationJob.start()).willReturn(true);
+    given(migrationJob.status()).willReturn(status("RUNNING", 0));
+
+    mockMvc
+        .perform(post("/api/admin/shards/migrate"))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.state").value("RUNNING"));
+  }
+
+  @Test
+  void migrate_returnsConflictWhenAPassIsAlreadyRunning() throws Exception {
+    given(migrationJob.start()).willReturn(false);
+    given(migrationJob.status()).willReturn(status("RUNNING", 120));
+
+    mockMvc
+        .perform(post("/api/admin/shards/migrate"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.moved").value(120));
+  }
+
+  @Test
+  void stop_asksTheRunningPassToStop() throws Exception {
+    given(migrationJob.status()).willReturn(status("STOPPING", 40));
+
+    mockMvc.perform(post("/api/admin/shards/stop")).andExpect(status().isAccepted());
+    mockMvc
+        .perform(get("/api/admin/shards"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.state").value("STOPPING"));
+    verify(migrationJob).stop();
+  }
+
+  private static ShardMigrationStatusResponse status(String state, long moved) {
+    return new ShardMigrationStatusResponse(state, moved, Instant.now(), null, null);
+  }
+}
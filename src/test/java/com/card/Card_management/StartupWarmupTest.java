@@ -0,0 +1,74 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.service.CardEncryptionService;
+import com.card.Card_management.service.CardFingerprintService;
+import com.card.Card_management.service.CardHashService;
+import com.card.Card_management.service.StartupWarmup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.actuate.health.Status;
+
+class StartupWarmupTest {
+
+  private final CardRepository cardRepository = mock(CardRepository.class);
+
+  @Test
+  void readinessStaysOutOfServiceUntilWarmupCompletes() throws Exception {
+    CountDownLatch repositoryReached = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    given(cardRepository.findPageAfter(null, 1))
+        .willAnswer(
+            call -> {
+              repositoryReached.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return List.of();
+            });
+    StartupWarmup warmup = warmup(true);
+    assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+    Thread runner = new Thread(() -> warmup.run(new DefaultApplicationArguments()));
+    runner.start();
+    assertThat(repositoryReached.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+    release.countDown();
+    runner.join(5_000);
+    assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    assertThat(warmup.health().getDetails()).containsKeys("durationMs", "stepsMs");
+  }
+
+  @Test
+  void disabledWarmupReportsUpOnceRun() {
+    StartupWarmup warmup = warmup(false);
+    assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+    warmup.run(new DefaultApplicationArguments());
+
+    assertThat(warmup.health().getStatus()).isEqualTo(Status.UP);
+    assertThat(warmup.health().getDetails()).containsEntry("warmup", "disabled");
+  }
+
+  private StartupWarmup warmup(boolean enabled) {
+    return new StartupWarmup(
+        mock(CardEncryptionService.class),
+        mock(CardHashService.class),
+        mock(CardFingerprintService.class),
+        cardRepository,
+        new ObjectMapper().findAndRegisterModules(),
+        new SimpleMeterRegistry(),
+        enabled,
+        3,
+        Duration.ofSeconds(5));
+  }
+}
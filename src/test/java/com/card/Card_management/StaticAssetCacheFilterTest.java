@@ -0,0 +1,66 @@
+package com.card.Card_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.config.StaticAssetCacheFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class StaticAssetCacheFilterTest {
+
+  private final StaticAssetCacheFilter filter = new StaticAssetCacheFilter();
+
+  @Test
+  void fingerprintedAsset_isCachedAsImmutable() throws Exception {
+    assertThat(cacheControlFor("/assets/app.cb5cd479e5.js"))
+        .isEqualTo("public, max-age=31536000, immutable");
+  }
+
+  @Test
+  void missingFingerprintedAsset_mustRevalidate() throws Exception {
+    String path = "/assets/app.0123456789.js";
+    FilterChain notFound =
+        (request, response) -> ((HttpServletResponse) response).sendError(404);
+    FilterChain failed = (request, response) -> ((HttpServletResponse) response).setStatus(500);
+
+    assertThat(cacheControlFor(path, notFound)).isEqualTo("no-cache");
+    assertThat(cacheControlFor(path, failed)).isEqualTo("no-cache");
+  }
+
+  @Test
+  void notModifiedFingerprintedAsset_keepsImmutable() throws Exception {
+    FilterChain notModified =
+        (request, response) -> ((HttpServletResponse) response).setStatus(304);
+
+    assertThat(cacheControlFor("/assets/app.cb5cd479e5.js", notModified))
+        .isEqualTo("public, max-age=31536000, immutable");
+  }
+
+  @Test
+  void htmlAndUnhashedAssets_mustRevalidate() throws Exception {
+    assertThat(cacheControlFor("/")).isEqualTo("no-cache");
+    assertThat(cacheControlFor("/index.html")).isEqualTo("no-cache");
+    assertThat(cacheControlFor("/assets/app.js")).isEqualTo("no-cache");
+  }
+
+  @Test
+  void apiResponses_areLeftAlone() throws Exception {
+    assertThat(cacheControlFor("/api/cards")).isNull();
+  }
+
+  private String cacheControlFor(String path) throws Exception {
+    return cacheControlFor(path, new MockFilterChain());
+  }
+
+  private String cacheControlFor(String path, FilterChain chain) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response.getHeader(HttpHeaders.CACHE_CONTROL);
+  }
+}
@@ -0,0 +1,162 @@
+package com.card.Card_management.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.load.WorkloadGenerator.Operation;
+import com.card.Card_management.load.WorkloadGenerator.Workload;
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.service.CardService;
+import com.card.Card_management.web.dto.CreateCardRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Open-loop load test that boots the full application with the local AES encryptor and an
+ * in-memory repository with injected latency, then replays a seeded workload over HTTP.
+ *
+ * <p>Latency is measured from each request's scheduled start rather than its actual send time, so
+ * queueing inside the client is charged to the server instead of being silently omitted. Run with
+ * {@code ./gradlew loadTest}; see {@link LoadTestSettings} for the available {@code -Dload.*}
+ * overrides.
+ */
+@Tag("load")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "firebase.enabled=false",
+      "card.warmup.enabled=true",
+      "card.kms.key-name=",
+      "card.encryption.key=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=",
+      "card.fingerprint.kms-key-version=",
+      "card.fingerprint.key=ZmVkY2JhOTg3NjU0MzIxMGZlZGNiYTk4NzY1NDMyMTA=",
+      "logging.level.com.card.Card_management=INFO"
+    })
+@Import(CardLoadTest.StandInRepositoryConfig.class)
+class CardLoadTest {
+
+  private static final Logger log = LoggerFactory.getLogger(CardLoadTest.class);
+  private static final Path REPORT_PATH = Path.of("build", "reports", "load-test", "summary.txt");
+
+  @LocalServerPort private int port;
+
+  @Autowired private CardService cardService;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void replaySeededWorkload() throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    Workload workload = WorkloadGenerator.generate(settings);
+
+    for (Operation seed : workload.seedCards) {
+      cardService.createCard(toRequest(seed));
+    }
+
+    HttpClient client =
+        HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    LoadReport report = new LoadReport();
+    ExecutorService workers = Executors.newFixedThreadPool(settings.maxConcurrency);
+
+    long start = System.nanoTime();
+    try {
+      for (Operation op : workload.operations) {
+        long scheduledAt = start + op.offsetNanos;
+        long remaining;
+        while ((remaining = scheduledAt - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(remaining);
+        }
+        HttpRequest request = toHttpRequest(op);
+        workers.execute(() -> execute(client, request, op, scheduledAt, report));
+      }
+    } finally {
+      workers.shutdown();
+      assertThat(workers.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+    }
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    String summary = report.render(settings, elapsed);
+    log.info("{}{}", System.lineSeparator(), summary);
+    Files.createDirectories(REPORT_PATH.getParent());
+    Files.writeString(REPORT_PATH, summary, StandardCharsets.UTF_8);
+
+    assertThat(report.totalRequests()).isEqualTo(workload.operations.size());
+  }
+
+  private void execute(
+      HttpClient client, HttpRequest request, Operation op, long scheduledAt, LoadReport report) {
+    boolean success;
+    try {
+      HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+      success = response.statusCode() / 100 == 2;
+    } catch (IOException e) {
+      success = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      success = false;
+    }
+    report.record(op.type, System.nanoTime() - scheduledAt, success);
+  }
+
+  private HttpRequest toHttpRequest(Operation op) throws JsonProcessingException {
+    String base = "http://localhost:" + port + "/api/cards";
+    return switch (op.type) {
+      case CREATE ->
+          HttpRequest.newBuilder(URI.create(base))
+              .header("Content-Type", "application/json")
+              .POST(
+                  HttpRequest.BodyPublishers.ofString(
+                      objectMapper.writeValueAsString(
+                          Map.of("cardholderName", op.cardholderName, "pan", op.pan))))
+              .build();
+      case LIST -> HttpRequest.newBuilder(URI.create(base)).GET().build();
+      case SEARCH ->
+          HttpRequest.newBuilder(URI.create(base + "/search?last4=" + op.lastFour)).GET().build();
+    };
+  }
+
+  private static CreateCardRequest toRequest(Operation op) {
+    CreateCardRequest request = new CreateCardRequest();
+    request.setCardholderName(op.cardholderName);
+    request.setPan(op.pan);
+    return request;
+  }
+
+  /** Replaces the Firestore repository with the latency-injecting in-memory stand-in. */
+  @TestConfiguration
+  static class StandInRepositoryConfig {
+
+    @Bean
+    CardRepository latencyInjectingCardRepository() {
+      LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+      return new LatencyInjectingCardRepository(
+          settings.repositoryLatency, settings.repositoryJitter, settings.seed);
+    }
+  }
+}
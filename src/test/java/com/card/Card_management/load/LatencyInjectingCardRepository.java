@@ -0,0 +1,162 @@
+package com.card.Card_management.load;
+
+import com.card.Card_management.model.CardRecord;
+import com.card.Card_management.repository.CardRepository;
+import com.card.Card_management.repository.DuplicateCardException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory stand-in for the Firestore repository that sleeps for a configurable base latency plus
+ * seeded jitter on every call, approximating a remote datastore round trip.
+ */
+class LatencyInjectingCardRepository implements CardRepository {
+
+  private final Map<String, CardRecord> records = new ConcurrentHashMap<>();
+  private final Map<String, String> idsByFingerprint = new ConcurrentHashMap<>();
+  private final long baseLatencyNanos;
+  private final long jitterNanos;
+  private final SplittableRandom random;
+
+  LatencyInjectingCardRepository(Duration baseLatency, Duration jitter, long seed) {
+    this.baseLatencyNanos = baseLatency.toNanos();
+    this.jitterNanos = jitter.toNanos();
+    this.random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public CardRecord save(CardRecord record) {
+    simulateLatency();
+    CardRecord persisted =
+        new CardRecord(
+            UUID.randomUUID().toString(),
+            record.getCardholderName(),
+            record.getPanCiphertextBytes(),
+            record.getLastFourHash(),
+            record.getPanFingerprint(),
+            record.getCreatedAt() != null ? record.getCreatedAt() : Instant.now());
+    if (persisted.getPanFingerprint() != null
+        && idsByFingerprint.putIfAbsent(persisted.getPanFingerprint(), persisted.getId()) != null) {
+      throw new DuplicateCardException("A card with this PAN already exists");
+    }
+    records.put(persisted.getId(), persisted);
+    return persisted;
+  }
+
+  @Override
+  public boolean existsByPanFingerprint(String panFingerprint) {
+    simulateLatency();
+    return idsByFingerprint.containsKey(panFingerprint);
+  }
+
+  @Override
+  public List<CardRecord> findAll() {
+    simulateLatency();
+    return List.copyOf(records.values());
+  }
+
+  @Override
+  public long count() {
+    simulateLatency();
+    return records.size();
+  }
+
+  @Override
+  public List<CardRecord> findAllById(Collection<String> ids) {
+    simulateLatency();
+    return ids.stream().distinct().map(records::get).filter(Objects::nonNull).toList();
+  }
+
+  @Override
+  public List<CardRecord> findByLastFourHash(String lastFourHash) {
+    simulateLatency();
+    return records.values().stream()
+        .filter(record -> lastFourHash.equals(record.getLastFourHash()))
+        .toList();
+  }
+
+  @Override
+  public List<CardRecord> findByLastFourHashes(Collection<String> lastFourHashes) {
+    simulateLatency();
+    return records.values().stream()
+        .filter(record -> lastFourHashes.contains(record.getLastFourHash()))
+        .toList();
+  }
+
+  @Override
+  public void migrateLegacyCiphertext(String id, String legacyCiphertext) {
+    simulateLatency();
+    records.computeIfPresent(
+        id,
+        (key, existing) ->
+            !legacyCiphertext.equals(existing.getPanCiphertext())
+                ? existing
+                : new CardRecord(
+                    key,
+                    existing.getCardholderName(),
+                    Base64.getDecoder().decode(legacyCiphertext),
+                    existing.getLastFourHash(),
+                    existing.getPanFingerprint(),
+                    existing.getCreatedAt()));
+  }
+
+  @Override
+  public List<CardRecord> findPageAfter(String afterId, int limit) {
+    simulateLatency();
+    return records.values().stream()
+        .filter(record -> afterId == null || record.getId().compareTo(afterId) > 0)
+        .sorted(Comparator.comparing(CardRecord::getId))
+        .limit(limit)
+        .toList();
+  }
+
+  @Override
+  public void replaceCiphertexts(Map<String, byte[]> ciphertextById) {
+    simulateLatency();
+    ciphertextById.forEach(
+        (id, ciphertext) ->
+            records.computeIfPresent(
+                id,
+                (key, existing) ->
+                    new CardRecord(
+                        key,
+                        existing.getCardholderName(),
+                        ciphertext,
+                        existing.getLastFourHash(),
+                        existing.getPanFingerprint(),
+                        existing.getCreatedAt())));
+  }
+
+  /** Number of stored records, bypassing latency injection. */
+  int size() {
+    return records.size();
+  }
+
+  private void simulateLatency() {
+    long delay = baseLatencyNanos;
+    if (jitterNanos > 0) {
+      synchronized (random) {
+        delay += random.nextLong(jitterNanos + 1);
+      }
+    }
+    if (delay <= 0) {
+      return;
+    }
+    long deadline = System.nanoTime() + delay;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)));
+    }
+  }
+}
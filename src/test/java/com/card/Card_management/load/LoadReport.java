@@ -0,0 +1,107 @@
+package com.card.Card_management.load;
+
+import com.card.Card_management.load.WorkloadGenerator.OperationType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread-safe sink for per-request latencies that renders throughput, latency percentiles and error
+ * rates per operation type once a run completes.
+ */
+final class LoadReport {
+
+  private final Map<OperationType, List<Long>> latencies = new EnumMap<>(OperationType.class);
+  private final Map<OperationType, Integer> errors = new EnumMap<>(OperationType.class);
+
+  LoadReport() {
+    for (OperationType type : OperationType.values()) {
+      latencies.put(type, new ArrayList<>());
+      errors.put(type, 0);
+    }
+  }
+
+  /**
+   * Records a completed request.
+   *
+   * @param type operation kind
+   * @param latencyNanos time from the scheduled start to completion
+   * @param success whether the request returned a 2xx status
+   */
+  synchronized void record(OperationType type, long latencyNanos, boolean success) {
+    latencies.get(type).add(latencyNanos);
+    if (!success) {
+      errors.merge(type, 1, Integer::sum);
+    }
+  }
+
+  /** Total number of recorded requests across all types. */
+  synchronized int totalRequests() {
+    return latencies.values().stream().mapToInt(List::size).sum();
+  }
+
+  /** Total number of failed requests across all types. */
+  synchronized int totalErrors() {
+    return errors.values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  /**
+   * Renders a fixed-width summary table.
+   *
+   * @param settings settings used for the run, echoed in the header
+   * @param elapsed wall-clock duration of the measured phase
+   */
+  synchronized String render(LoadTestSettings settings, Duration elapsed) {
+    double seconds = Math.max(elapsed.toNanos(), 1) / 1_000_000_000d;
+    StringBuilder out = new StringBuilder();
+    out.append("Load test: ").append(settings).append(System.lineSeparator());
+    out.append(String.format("Elapsed: %.2fs%n", seconds));
+    out.append(
+        String.format(
+            "%-8s %8s %10s %10s %10s %10s %10s %8s%n",
+            "op", "count", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "err%"));
+
+    List<Long> all = new ArrayList<>();
+    for (OperationType type : OperationType.values()) {
+      List<Long> samples = latencies.get(type);
+      all.addAll(samples);
+      out.append(row(type.name(), samples, errors.get(type), seconds));
+    }
+    out.append(row("ALL", all, totalErrors(), seconds));
+    return out.toString();
+  }
+
+  private static String row(String label, List<Long> samples, int errorCount, double seconds) {
+    long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    double errorRate = sorted.length == 0 ? 0 : 100d * errorCount / sorted.length;
+    return String.format(
+        "%-8s %8d %10.1f %10.2f %10.2f %10.2f %10.2f %8.2f%n",
+        label,
+        sorted.length,
+        sorted.length / seconds,
+        millis(percentile(sorted, 0.50)),
+        millis(percentile(sorted, 0.95)),
+        millis(percentile(sorted, 0.99)),
+        millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+        errorRate);
+  }
+
+  /**
+   * Nearest-rank percentile over an ascending array.
+   */
+  static long percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(quantile * sorted.length);
+    return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000d;
+  }
+}
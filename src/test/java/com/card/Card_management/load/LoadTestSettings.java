@@ -0,0 +1,111 @@
+package com.card.Card_management.load;
+
+import java.time.Duration;
+
+/**
+ * Knobs for a load-test run, read from {@code load.*} system properties so the same harness can be
+ * driven from the command line (for example {@code ./gradlew loadTest -Dload.seed=7}).
+ */
+final class LoadTestSettings {
+
+  final long seed;
+  final Duration duration;
+  final double createRate;
+  final double listRate;
+  final double searchRate;
+  final double searchHitRatio;
+  final int initialCards;
+  final int maxConcurrency;
+  final Duration repositoryLatency;
+  final Duration repositoryJitter;
+
+  private LoadTestSettings(
+      long seed,
+      Duration duration,
+      double createRate,
+      double listRate,
+      double searchRate,
+      double searchHitRatio,
+      int initialCards,
+      int maxConcurrency,
+      Duration repositoryLatency,
+      Duration repositoryJitter) {
+    this.seed = seed;
+    this.duration = duration;
+    this.createRate = createRate;
+    this.listRate = listRate;
+    this.searchRate = searchRate;
+    this.searchHitRatio = searchHitRatio;
+    this.initialCards = initialCards;
+    this.maxConcurrency = maxConcurrency;
+    this.repositoryLatency = repositoryLatency;
+    this.repositoryJitter = repositoryJitter;
+  }
+
+  /**
+   * Builds settings from system properties, falling back to a short smoke-sized run.
+   */
+  static LoadTestSettings fromSystemProperties() {
+    return new LoadTestSettings(
+        Long.getLong("load.seed", 42L),
+        Duration.ofSeconds(Long.getLong("load.duration-seconds", 10L)),
+        doubleProperty("load.create-rate", 20.0),
+        doubleProperty("load.list-rate", 5.0),
+        doubleProperty("load.search-rate", 50.0),
+        doubleProperty("load.search-hit-ratio", 0.8),
+        Integer.getInteger("load.initial-cards", 200),
+        Integer.getInteger("load.max-concurrency", 64),
+        Duration.ofMillis(Long.getLong("load.repository.latency-ms", 5L)),
+        Duration.ofMillis(Long.getLong("load.repository.jitter-ms", 5L)));
+  }
+
+  /**
+   * Returns a copy with a different seed, keeping every other knob.
+   */
+  LoadTestSettings withSeed(long newSeed) {
+    return new LoadTestSettings(
+        newSeed,
+        duration,
+        createRate,
+        listRate,
+        searchRate,
+        searchHitRatio,
+        initialCards,
+        maxConcurrency,
+        repositoryLatency,
+        repositoryJitter);
+  }
+
+  @Override
+  public String toString() {
+    return "seed="
+        + seed
+        + " duration="
+        + duration
+        + " rates(create/list/search)="
+        + createRate
+        + "/"
+        + listRate
+        + "/"
+        + searchRate
+        + "/s searchHitRatio="
+        + searchHitRatio
+        + " initialCards="
+        + initialCards
+        + " maxConcurrency="
+        + maxConcurrency
+        + " repoLatency="
+        + repositoryLatency.toMillis()
+        + "ms+"
+        + repositoryJitter.toMillis()
+        + "ms";
+  }
+
+  private static double doubleProperty(String name, double defaultValue) {
+    String value = System.getProperty(name);
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    return Double.parseDouble(value.trim());
+  }
+}
@@ -0,0 +1,148 @@
+package com.card.Card_management.load;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Expands {@link LoadTestSettings} into a fully materialised, seed-deterministic schedule of
+ * operations. Arrivals per operation type follow a Poisson process at the configured rate.
+ */
+final class WorkloadGenerator {
+
+  private static final String[] FIRST_NAMES = {
+    "Ada", "Alan", "Grace", "Linus", "Barbara", "Edsger", "Margaret", "Donald", "Frances", "Ken"
+  };
+  private static final String[] LAST_NAMES = {
+    "Lovelace", "Turing", "Hopper", "Torvalds", "Liskov", "Dijkstra", "Hamilton", "Knuth", "Allen"
+  };
+
+  private WorkloadGenerator() {}
+
+  /** Kind of request issued against the API. */
+  enum OperationType {
+    CREATE,
+    LIST,
+    SEARCH
+  }
+
+  /**
+   * Single scheduled request. {@code pan} and {@code cardholderName} are set for creates,
+   * {@code lastFour} for searches.
+   */
+  static final class Operation {
+    final OperationType type;
+    final long offsetNanos;
+    final String cardholderName;
+    final String pan;
+    final String lastFour;
+
+    Operation(
+        OperationType type, long offsetNanos, String cardholderName, String pan, String lastFour) {
+      this.type = type;
+      this.offsetNanos = offsetNanos;
+      this.cardholderName = cardholderName;
+      this.pan = pan;
+      this.lastFour = lastFour;
+    }
+
+    @Override
+    public String toString() {
+      return type + "@" + offsetNanos + "[" + cardholderName + "," + pan + "," + lastFour + "]";
+    }
+  }
+
+  /** Seed data created before measurement starts plus the timed operation schedule. */
+  static final class Workload {
+    final List<Operation> seedCards;
+    final List<Operation> operations;
+
+    Workload(List<Operation> seedCards, List<Operation> operations) {
+      this.seedCards = seedCards;
+      this.operations = operations;
+    }
+  }
+
+  /**
+   * Generates the workload for the supplied settings. Identical settings always produce an
+   * identical workload.
+   */
+  static Workload generate(LoadTestSettings settings) {
+    SplittableRandom root = new SplittableRandom(settings.seed);
+    SplittableRandom cardRandom = root.split();
+    long horizonNanos = settings.duration.toNanos();
+
+    List<Operation> seedCards = new ArrayList<>(settings.initialCards);
+    List<String> knownPans = new ArrayList<>();
+    for (int i = 0; i < settings.initialCards; i++) {
+      Operation create = newCreate(cardRandom, 0L);
+      seedCards.add(create);
+      knownPans.add(create.pan);
+    }
+
+    List<Operation> operations = new ArrayList<>();
+    operations.addAll(
+        arrivals(root.split(), settings.createRate, horizonNanos, OperationType.CREATE));
+    operations.addAll(arrivals(root.split(), settings.listRate, horizonNanos, OperationType.LIST));
+    operations.addAll(
+        arrivals(root.split(), settings.searchRate, horizonNanos, OperationType.SEARCH));
+    operations.sort(
+        Comparator.comparingLong((Operation op) -> op.offsetNanos)
+            .thenComparing(op -> op.type));
+
+    // Fill in payloads in schedule order so searches can target cards created earlier in the run.
+    SplittableRandom payloadRandom = root.split();
+    List<Operation> resolved = new ArrayList<>(operations.size());
+    for (Operation op : operations) {
+      switch (op.type) {
+        case CREATE -> {
+          Operation create = newCreate(cardRandom, op.offsetNanos);
+          knownPans.add(create.pan);
+          resolved.add(create);
+        }
+        case SEARCH -> {
+          String lastFour;
+          if (!knownPans.isEmpty() && payloadRandom.nextDouble() < settings.searchHitRatio) {
+            String pan = knownPans.get(payloadRandom.nextInt(knownPans.size()));
+            lastFour = pan.substring(pan.length() - 4);
+          } else {
+            lastFour = String.format("%04d", payloadRandom.nextInt(10_000));
+          }
+          resolved.add(new Operation(OperationType.SEARCH, op.offsetNanos, null, null, lastFour));
+        }
+        default -> resolved.add(op);
+      }
+    }
+    return new Workload(List.copyOf(seedCards), List.copyOf(resolved));
+  }
+
+  private static List<Operation> arrivals(
+      SplittableRandom random, double ratePerSecond, long horizonNanos, OperationType type) {
+    List<Operation> result = new ArrayList<>();
+    if (ratePerSecond <= 0) {
+      return result;
+    }
+    double meanGapNanos = 1_000_000_000d / ratePerSecond;
+    double t = 0;
+    while (true) {
+      t += -Math.log(1 - random.nextDouble()) * meanGapNanos;
+      if (t >= horizonNanos) {
+        return result;
+      }
+      result.add(new Operation(type, (long) t, null, null, null));
+    }
+  }
+
+  private static Operation newCreate(SplittableRandom random, long offsetNanos) {
+    StringBuilder pan = new StringBuilder(16);
+    for (int i = 0; i < 16; i++) {
+      pan.append((char) ('0' + random.nextInt(10)));
+    }
+    String name =
+        FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+            + " "
+            + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    return new Operation(OperationType.CREATE, offsetNanos, name, pan.toString(), null);
+  }
+}
@@ -0,0 +1,38 @@
+package com.card.Card_management.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.card.Card_management.load.WorkloadGenerator.Workload;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Guards the reproducibility contract of the load-test workload.
+ */
+class WorkloadGeneratorTest {
+
+  @Test
+  void sameSeed_producesIdenticalWorkload() {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties().withSeed(1234L);
+
+    Workload first = WorkloadGenerator.generate(settings);
+    Workload second = WorkloadGenerator.generate(settings);
+
+    assertThat(first.operations).isNotEmpty();
+    assertThat(second.seedCards).hasSameSizeAs(first.seedCards);
+    assertThat(second.operations).hasSameSizeAs(first.operations);
+    for (int i = 0; i < first.operations.size(); i++) {
+      assertThat(second.operations.get(i).toString())
+          .isEqualTo(first.operations.get(i).toString());
+    }
+  }
+
+  @Test
+  void differentSeed_producesDifferentWorkload() {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    Workload first = WorkloadGenerator.generate(settings.withSeed(1L));
+    Workload second = WorkloadGenerator.generate(settings.withSeed(2L));
+
+    assertThat(second.operations.toString()).isNotEqualTo(first.operations.toString());
+  }
+}
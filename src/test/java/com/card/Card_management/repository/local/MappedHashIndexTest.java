@@ -0,0 +1,81 @@
+package com.card.Card_management.repository.local;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that sets in the index stay cheap to read and extend when many members share a key, as
+ * cards sharing last four digits do.
+ */
+class MappedHashIndexTest {
+
+  private static final int LARGE_SET = 5_000;
+
+  @TempDir Path directory;
+
+  @Test
+  void lookupsStayShortWithManyMembersPerKey() throws IOException {
+    MappedHashIndex index = MappedHashIndex.open(directory.resolve("sets.idx"), 16);
+    long location = 1;
+    for (int member = 0; member < LARGE_SET; member++) {
+      index.putMember(key("large-a"), key("a-" + member), location++);
+      index.putMember(key("large-b"), key("b-" + member), location++);
+    }
+    for (int suffix = 0; suffix < 1_000; suffix++) {
+      index.putMember(key("small-" + suffix), key("s-" + suffix), location++);
+    }
+
+    long before = index.probes();
+    for (int suffix = 0; suffix < 1_000; suffix++) {
+      assertThat(members(index, "small-" + suffix)).hasSize(1);
+    }
+    assertThat((index.probes() - before) / 1_000).isLessThan(20);
+
+    before = index.probes();
+    assertThat(members(index, "large-a")).hasSize(LARGE_SET).doesNotHaveDuplicates();
+    assertThat(index.probes() - before).isLessThan(5L * LARGE_SET);
+
+    before = index.probes();
+    for (int member = 0; member < 100; member++) {
+      index.putMember(key("large-a"), key("extra-" + member), location++);
+    }
+    assertThat((index.probes() - before) / 100).isLessThan(60);
+    index.close();
+  }
+
+  @Test
+  void movingAMemberReplacesItsLocation() throws IOException {
+    Path file = directory.resolve("sets.idx");
+    MappedHashIndex index = MappedHashIndex.open(file, 16);
+    for (int member = 0; member < 100; member++) {
+      index.putMember(key("suffix"), key("card-" + member), 1 + member);
+    }
+    for (int member = 0; member < 100; member++) {
+      index.putMember(key("suffix"), key("card-" + member), 1_000 + member);
+    }
+    index.close();
+
+    MappedHashIndex reopened = MappedHashIndex.open(file, 16);
+    assertThat(members(reopened, "suffix"))
+        .hasSize(100)
+        .allSatisfy(location -> assertThat(location).isBetween(1_000L, 1_099L));
+    assertThat(members(reopened, "other")).isEmpty();
+    reopened.close();
+  }
+
+  private static List<Long> members(MappedHashIndex index, String key) {
+    List<Long> locations = new ArrayList<>();
+    index.forEachMember(key(key), locations::add);
+    return locations;
+  }
+
+  private static long key(String value) {
+    return MappedHashIndex.hash(value);
+  }
+}